@@ -0,0 +1,126 @@
+package com.sampullman.pager;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the PageWindow engine: populating the window on a swipe, computing page
+ * offsets, and picking the target page when a drag ends.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PageWindowBenchmark {
+    private static final float MARGIN_OFFSET = 0.02f;
+
+    @Param({"1", "5"})
+    int offscreenPageLimit;
+
+    // Every third page is half width when true
+    @Param({"false", "true"})
+    boolean variableWidths;
+
+    // Simulated adapter work, in Blackhole.consumeCPU tokens per id lookup. Instantiating a
+    // page costs ten times as much.
+    @Param({"0", "100"})
+    int adapterCost;
+
+    private PageWindow<Integer> window;
+    private int current;
+
+    private class BenchmarkSource implements PageSource<Integer> {
+        @Override
+        public Integer nextId(Integer id) {
+            Blackhole.consumeCPU(adapterCost);
+            return id + 1;
+        }
+
+        @Override
+        public Integer prevId(Integer id) {
+            Blackhole.consumeCPU(adapterCost);
+            return id - 1;
+        }
+
+        @Override
+        public float pageWidth(Integer id) {
+            return variableWidths && id % 3 == 0 ? 0.5f : 1.f;
+        }
+
+        @Override
+        public Object idKey(Integer id) {
+            return id;
+        }
+
+        @Override
+        public boolean hasAtLeastOneItem() {
+            return true;
+        }
+
+        @Override
+        public int compareIds(Integer a, Integer b) {
+            return a.compareTo(b);
+        }
+
+        @Override
+        public float offsetBetween(Integer a, Integer b, float marginOffset) {
+            return Float.NaN;
+        }
+
+        @Override
+        public void instantiate(ItemInfo<Integer> ii) {
+            Blackhole.consumeCPU(10 * adapterCost);
+            ii.object = new Object();
+        }
+
+        @Override
+        public void destroy(ItemInfo<Integer> ii) {
+            ii.object = null;
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        window = new PageWindow<>(new BenchmarkSource());
+        current = 0;
+        window.populate(current, null, PageWindow.IdPosition.EQUAL, offscreenPageLimit, offscreenPageLimit,
+                MARGIN_OFFSET);
+    }
+
+    @Benchmark
+    public Object populateSwipe() {
+        final int next = current + 1;
+        final ItemInfo<Integer> oldCurInfo = window.infoForId(current);
+        final PageWindow.IdPosition oldPos = window.relativePosition(current, next);
+        current = next;
+        return window.populate(current, oldCurInfo, oldPos, offscreenPageLimit, offscreenPageLimit,
+                MARGIN_OFFSET);
+    }
+
+    @Benchmark
+    public float pageOffsets() {
+        final ItemInfo<Integer> curItem = window.infoForId(current);
+        window.calculatePageOffsets(curItem, window.indexOf(curItem), null,
+                PageWindow.IdPosition.EQUAL, MARGIN_OFFSET);
+        return window.lastOffset;
+    }
+
+    @Benchmark
+    public Integer targetPageSettle() {
+        return window.determineTargetPage(current, 0.6f, false, 0);
+    }
+
+    @Benchmark
+    public Integer targetPageFling() {
+        return window.determineTargetPage(current, 0.2f, true, -2000);
+    }
+}
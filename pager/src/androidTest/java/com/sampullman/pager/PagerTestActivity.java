@@ -0,0 +1,10 @@
+package com.sampullman.pager;
+
+import android.app.Activity;
+
+/**
+ * Empty activity for instrumented tests to attach a pager to.
+ */
+public class PagerTestActivity extends Activity {
+    // This space for rent
+}
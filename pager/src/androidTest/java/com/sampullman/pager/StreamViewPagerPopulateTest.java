@@ -0,0 +1,151 @@
+package com.sampullman.pager;
+
+import android.os.SystemClock;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.rule.ActivityTestRule;
+import android.support.test.runner.AndroidJUnit4;
+import android.view.View;
+import android.view.ViewGroup;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Populate requests made through the pager's public entry points, checked by the size of the
+ * pages once the frames after them are drawn.
+ */
+@RunWith(AndroidJUnit4.class)
+public class StreamViewPagerPopulateTest {
+    // Long enough for the frames posted by the previous step to be drawn
+    private static final long FRAME_WAIT = 100; // ms
+
+    @Rule
+    public final ActivityTestRule<PagerTestActivity> activityRule =
+            new ActivityTestRule<>(PagerTestActivity.class);
+
+    private StreamViewPager<Long> pager;
+    private WidthAdapter adapter;
+
+    // Pages that don't recycle their views, with adjustable widths
+    private static class WidthAdapter extends LongStreamViewAdapter {
+        final Map<Long, View> pages = new HashMap<>();
+        float pageWidth = 1.f;
+
+        @Override
+        public long nextId(long fromId) {
+            return fromId + 1;
+        }
+
+        @Override
+        public long prevId(long fromId) {
+            return fromId - 1;
+        }
+
+        @Override
+        public long initialId() {
+            return 0;
+        }
+
+        @Override
+        public float getPageWidth(Long id) {
+            return pageWidth;
+        }
+
+        @Override
+        public Object instantiateItem(ViewGroup container, Long id) {
+            final View view = new View(container.getContext());
+            container.addView(view);
+            pages.put(id, view);
+            return view;
+        }
+    }
+
+    @Before
+    public void setUp() throws Throwable {
+        final PagerTestActivity activity = activityRule.getActivity();
+        activityRule.runOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                pager = new StreamViewPager<>(activity);
+                adapter = new WidthAdapter();
+                pager.setAdapter(adapter);
+                activity.setContentView(pager);
+            }
+        });
+        waitForFrames();
+    }
+
+    @Test
+    public void pageChanged_recreatedPageHasItsWidth() throws Throwable {
+        final View oldPage = adapter.pages.get(0L);
+        activityRule.runOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                adapter.notifyPageChanged(0L);
+            }
+        });
+        waitForFrames();
+        final View page = adapter.pages.get(0L);
+        assertNotSame(oldPage, page);
+        assertEquals(pageWidth(), page.getWidth());
+    }
+
+    @Test
+    public void widthChangedAfterPass_laysOutNewWidth() throws Throwable {
+        activityRule.runOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                // Run a pass in this frame first
+                pager.populate();
+                pager.flushPopulate();
+                adapter.pageWidth = 0.5f;
+                adapter.notifyPageWidthChanged(0L);
+            }
+        });
+        waitForFrames();
+        assertEquals(pageWidth() / 2, adapter.pages.get(0L).getWidth());
+    }
+
+    @Test
+    public void settle_populatesOnceWhenItEnds() throws Throwable {
+        final PagerMetrics[] swipe = new PagerMetrics[1];
+        activityRule.runOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                pager.setOnPagerMetricsListener(new OnPagerMetricsListener() {
+                    @Override
+                    public void onSwipeMetrics(PagerMetrics metrics) {
+                        swipe[0] = metrics;
+                    }
+                });
+                pager.setCurrentItem(1L, true);
+            }
+        });
+        // Let the settle finish, it's capped at 600ms
+        SystemClock.sleep(1000);
+        waitForFrames();
+        assertNotNull(swipe[0]);
+        // Recording starts after the pass that moves the current page. The requests when the
+        // settle ends, and the measures and layouts after it, share one more.
+        assertEquals(1, swipe[0].populates);
+        assertEquals(Long.valueOf(1), pager.getCurrentViewId());
+        assertTrue(adapter.pages.containsKey(2L));
+        assertEquals(pageWidth(), adapter.pages.get(2L).getWidth());
+    }
+
+    private int pageWidth() {
+        return pager.getWidth() - pager.getPaddingLeft() - pager.getPaddingRight();
+    }
+
+    private void waitForFrames() {
+        SystemClock.sleep(FRAME_WAIT);
+        InstrumentationRegistry.getInstrumentation().waitForIdleSync();
+    }
+}
@@ -0,0 +1,159 @@
+package com.sampullman.pager;
+
+import android.os.SystemClock;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.rule.ActivityTestRule;
+import android.support.test.runner.AndroidJUnit4;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewConfiguration;
+import android.view.ViewGroup;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Touch handling of a pager whose pages don't consume touches, so after the down event the
+ * gesture goes straight to onTouchEvent without passing through onInterceptTouchEvent.
+ */
+@RunWith(AndroidJUnit4.class)
+public class StreamViewPagerTouchTest {
+
+    @Rule
+    public final ActivityTestRule<PagerTestActivity> activityRule =
+            new ActivityTestRule<>(PagerTestActivity.class);
+
+    private StreamViewPager<Long> pager;
+    private PlainPageAdapter adapter;
+
+    private static class PlainPageAdapter extends LongStreamViewAdapter {
+        final Set<Long> instantiated = new HashSet<>();
+
+        @Override
+        public long nextId(long fromId) {
+            return fromId + 1;
+        }
+
+        @Override
+        public long prevId(long fromId) {
+            return fromId - 1;
+        }
+
+        @Override
+        public long initialId() {
+            return 0;
+        }
+
+        @Override
+        public Object instantiateItem(ViewGroup container, Long id) {
+            instantiated.add(id);
+            // Not clickable, so it doesn't consume touches
+            final View view = new View(container.getContext());
+            container.addView(view);
+            return view;
+        }
+    }
+
+    @Before
+    public void setUp() throws Throwable {
+        final PagerTestActivity activity = activityRule.getActivity();
+        activityRule.runOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                pager = new StreamViewPager<>(activity);
+                pager.setPrefetchEnabled(true);
+                adapter = new PlainPageAdapter();
+                pager.setAdapter(adapter);
+                activity.setContentView(pager);
+            }
+        });
+        InstrumentationRegistry.getInstrumentation().waitForIdleSync();
+    }
+
+    @Test
+    public void drag_endsSpeculation() throws Throwable {
+        final boolean[] speculating = new boolean[2];
+        activityRule.runOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                final int touchSlop = ViewConfiguration.get(pager.getContext()).getScaledTouchSlop();
+                final float x = pager.getWidth() / 2;
+                final float y = pager.getHeight() / 2;
+                final long downTime = SystemClock.uptimeMillis();
+                dispatch(downTime, downTime, MotionEvent.ACTION_DOWN, x, y);
+                speculating[0] = pager.isSpeculating();
+                dispatch(downTime, downTime + 16, MotionEvent.ACTION_MOVE, x - 2 * touchSlop, y);
+                speculating[1] = pager.isSpeculating();
+                dispatch(downTime, downTime + 32, MotionEvent.ACTION_UP, x - 2 * touchSlop, y);
+            }
+        });
+        assertTrue(speculating[0]);
+        assertFalse(speculating[1]);
+    }
+
+    @Test
+    public void tap_endsSpeculation() throws Throwable {
+        final boolean[] speculating = new boolean[2];
+        activityRule.runOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                final float x = pager.getWidth() / 2;
+                final float y = pager.getHeight() / 2;
+                final long downTime = SystemClock.uptimeMillis();
+                dispatch(downTime, downTime, MotionEvent.ACTION_DOWN, x, y);
+                speculating[0] = pager.isSpeculating();
+                dispatch(downTime, downTime + 16, MotionEvent.ACTION_UP, x, y);
+                speculating[1] = pager.isSpeculating();
+            }
+        });
+        assertTrue(speculating[0]);
+        assertFalse(speculating[1]);
+    }
+
+    @Test
+    public void momentumFling_teleportsWithoutTeleportEnabled() throws Throwable {
+        activityRule.runOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                pager.setMomentumFlingEnabled(true);
+                // Most of a page in a few milliseconds, fast enough to carry well past the window
+                final float y = pager.getHeight() / 2;
+                final float startX = pager.getWidth() * 0.9f;
+                final float endX = pager.getWidth() * 0.1f;
+                final long downTime = SystemClock.uptimeMillis();
+                dispatch(downTime, downTime, MotionEvent.ACTION_DOWN, startX, y);
+                for (int i = 1; i <= 4; i++) {
+                    dispatch(downTime, downTime + i * 2, MotionEvent.ACTION_MOVE,
+                            startX + (endX - startX) * i / 4, y);
+                }
+                dispatch(downTime, downTime + 10, MotionEvent.ACTION_UP, endX, y);
+            }
+        });
+        // Let the settle finish, it's capped at 600ms
+        SystemClock.sleep(1000);
+        InstrumentationRegistry.getInstrumentation().waitForIdleSync();
+        assertFalse(pager.isTeleportEnabled());
+        final long landing = pager.getCurrentViewId();
+        assertTrue(landing > 4);
+        // Past the first window and short of the landing window, the fling created no pages
+        for (long id = 3; id < landing - 2; id++) {
+            assertFalse(adapter.instantiated.contains(id));
+        }
+    }
+
+    private void dispatch(long downTime, long eventTime, int action, float x, float y) {
+        final MotionEvent event = MotionEvent.obtain(downTime, eventTime, action, x, y, 0);
+        try {
+            pager.dispatchTouchEvent(event);
+        } finally {
+            event.recycle();
+        }
+    }
+}
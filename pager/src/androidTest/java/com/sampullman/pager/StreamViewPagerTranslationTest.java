@@ -0,0 +1,146 @@
+package com.sampullman.pager;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.os.SystemClock;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.rule.ActivityTestRule;
+import android.support.test.runner.AndroidJUnit4;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewConfiguration;
+import android.view.ViewGroup;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ * Drawing of a pager in translation scroll mode, where a drag only changes the pages'
+ * translation and the pager is drawn again only when it asks to be.
+ */
+@RunWith(AndroidJUnit4.class)
+public class StreamViewPagerTranslationTest {
+    // Long enough for the frames posted by the previous step to be drawn
+    private static final long FRAME_WAIT = 100; // ms
+
+    @Rule
+    public final ActivityTestRule<PagerTestActivity> activityRule =
+            new ActivityTestRule<>(PagerTestActivity.class);
+
+    private DrawCountingPager pager;
+
+    private static class DrawCountingPager extends StreamViewPager<Long> {
+        int draws;
+
+        DrawCountingPager(Context context) {
+            super(context);
+        }
+
+        @Override
+        protected void dispatchDraw(Canvas canvas) {
+            draws++;
+            super.dispatchDraw(canvas);
+        }
+    }
+
+    // Pages from 0 up, so the window around page 0 doesn't need any new pages
+    private static class FirstPageAdapter extends LongStreamViewAdapter {
+        @Override
+        public long nextId(long fromId) {
+            return fromId + 1;
+        }
+
+        @Override
+        public long prevId(long fromId) {
+            return fromId > 0 ? fromId - 1 : NO_ID;
+        }
+
+        @Override
+        public long initialId() {
+            return 1;
+        }
+
+        @Override
+        public Object instantiateItem(ViewGroup container, Long id) {
+            final View view = new View(container.getContext());
+            container.addView(view);
+            return view;
+        }
+    }
+
+    @Before
+    public void setUp() throws Throwable {
+        final PagerTestActivity activity = activityRule.getActivity();
+        activityRule.runOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                pager = new DrawCountingPager(activity);
+                pager.setTranslationScrollEnabled(true);
+                pager.setAdapter(new FirstPageAdapter());
+                activity.setContentView(pager);
+            }
+        });
+        waitForFrames();
+    }
+
+    @Test
+    public void dragBackOntoCulledPage_drawsPagerAgain() throws Throwable {
+        final float y = pager.getHeight() / 2;
+        final float startX = pager.getWidth() / 2;
+        final long downTime = SystemClock.uptimeMillis();
+        final int touchSlop = ViewConfiguration.get(pager.getContext()).getScaledTouchSlop();
+        // Drag forward a little: page 0 stays out of view, so it's culled when the pager draws
+        activityRule.runOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                assertFalse(pager.isPageVisible(0L));
+                dispatch(downTime, downTime, MotionEvent.ACTION_DOWN, startX, y);
+                dispatch(downTime, downTime + 16, MotionEvent.ACTION_MOVE,
+                        startX - touchSlop - 1, y);
+                dispatch(downTime, downTime + 32, MotionEvent.ACTION_MOVE,
+                        startX - touchSlop - 1 - pager.getWidth() / 4, y);
+            }
+        });
+        waitForFrames();
+        assertFalse(pager.isPageVisible(0L));
+        final int draws = pager.draws;
+
+        // Drag back past the start of page 1, so page 0 slides in
+        activityRule.runOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                dispatch(downTime, downTime + 48, MotionEvent.ACTION_MOVE,
+                        startX - touchSlop - 1 + pager.getWidth() / 4, y);
+            }
+        });
+        waitForFrames();
+        assertTrue(pager.isPageVisible(0L));
+        assertTrue(pager.draws > draws);
+
+        activityRule.runOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                dispatch(downTime, downTime + 64, MotionEvent.ACTION_CANCEL,
+                        startX - touchSlop - 1 + pager.getWidth() / 4, y);
+            }
+        });
+    }
+
+    private void waitForFrames() {
+        SystemClock.sleep(FRAME_WAIT);
+        InstrumentationRegistry.getInstrumentation().waitForIdleSync();
+    }
+
+    private void dispatch(long downTime, long eventTime, int action, float x, float y) {
+        final MotionEvent event = MotionEvent.obtain(downTime, eventTime, action, x, y, 0);
+        try {
+            pager.dispatchTouchEvent(event);
+        } finally {
+            event.recycle();
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.sampullman.pager;
+
+/**
+ * Receives change notifications from a StreamViewAdapter. Implemented by StreamViewPager.
+ */
+interface AdapterObserver<T> {
+    /** The prev/next links between ids have changed. */
+    void onIdsChanged();
+
+    /** Anything in the stream may have changed. */
+    void onDataSetChanged();
+
+    /** Ids were inserted after the given id, or at the start of the stream if it's null. */
+    void onIdsInserted(T afterId);
+
+    /** The given id was removed from the stream. */
+    void onIdRemoved(T id);
+
+    /** The content of the page with the given id has changed. */
+    void onPageChanged(T id);
+
+    /** The width of the page with the given id has changed. */
+    void onPageWidthChanged(T id);
+
+    /** The widths of any number of pages have changed. */
+    void onAllPageWidthsChanged();
+}
@@ -0,0 +1,168 @@
+package com.sampullman.pager;
+
+import android.os.AsyncTask;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+
+import java.util.IdentityHashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+
+import static android.view.ViewGroup.LayoutParams.MATCH_PARENT;
+
+/**
+ * A StreamViewAdapter for pages whose content is expensive to load. Each page is shown as a
+ * cheap placeholder as soon as the pager asks for it, while the page data is prepared on a
+ * background executor. When the data is ready, the placeholder is swapped for the real page
+ * content on the UI thread. Pages that leave the pager window before their data is ready have
+ * their preparation cancelled.
+ *
+ * @param <T> Page id type
+ * @param <D> Type of the data prepared for each page
+ */
+public abstract class AsyncStreamViewAdapter<T, D> extends StreamViewAdapter<T> {
+
+    private final Executor executor;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    // Pending loads keyed by the page frame returned from instantiateItem. UI thread only.
+    private final IdentityHashMap<Object, PageLoad> loads = new IdentityHashMap<>();
+
+    public AsyncStreamViewAdapter() {
+        this(AsyncTask.THREAD_POOL_EXECUTOR);
+    }
+
+    /**
+     * @param executor Executor that page data will be prepared on
+     */
+    public AsyncStreamViewAdapter(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Create the view shown while the data for a page is being prepared. Called on the
+     * UI thread, and should be cheap. The view's own layout params are kept, without any
+     * it fills the page.
+     *
+     * @param container Frame that will hold the page
+     * @param id The id of the page
+     * @return Placeholder view for the page
+     */
+    public abstract View createPlaceholder(ViewGroup container, T id);
+
+    /**
+     * Prepare the data for a page. Called on the adapter's executor.
+     *
+     * @param id The id of the page
+     * @return Data used to create the page content
+     */
+    public abstract D preparePage(T id) throws Exception;
+
+    /**
+     * Create the real content of a page from its prepared data. Called on the UI thread.
+     *
+     * @param container Frame that will hold the page
+     * @param id The id of the page
+     * @param data Data returned from {@link #preparePage(Object)}
+     * @return Content view for the page
+     */
+    public abstract View createPage(ViewGroup container, T id, D data);
+
+    /**
+     * Called on the UI thread when {@link #preparePage(Object)} throws. The placeholder
+     * is left in place by default.
+     */
+    public void onPrepareFailed(ViewGroup container, T id, Throwable error) {
+        // This space for rent
+    }
+
+    /** Returns true if the data for the given page object is still being prepared. */
+    public boolean isPagePending(Object object) {
+        return loads.containsKey(object);
+    }
+
+    @Override
+    public Object instantiateItem(ViewGroup container, T id) {
+        FrameLayout frame = new FrameLayout(container.getContext());
+        addToFrame(frame, createPlaceholder(frame, id));
+        container.addView(frame);
+
+        PageLoad load = new PageLoad(id, frame);
+        loads.put(frame, load);
+        executor.execute(load);
+        return frame;
+    }
+
+    @Override
+    public void destroyItem(ViewGroup container, T id, Object object) {
+        PageLoad load = loads.remove(object);
+        if (load != null) {
+            // The page left the window before its data arrived, don't bother finishing it
+            load.cancel(false);
+        }
+        super.destroyItem(container, id, object);
+    }
+
+    // Keep the view's own layout params, e.g. a centered progress bar, or fill the page
+    private static void addToFrame(FrameLayout frame, View view) {
+        if (view.getLayoutParams() == null) {
+            frame.addView(view, new FrameLayout.LayoutParams(MATCH_PARENT, MATCH_PARENT));
+        } else {
+            frame.addView(view);
+        }
+    }
+
+    private class PageLoad extends FutureTask<D> {
+        private final T id;
+        private final FrameLayout frame;
+
+        private final Runnable bind = new Runnable() {
+            @Override
+            public void run() {
+                bindPage();
+            }
+        };
+
+        PageLoad(final T id, FrameLayout frame) {
+            super(new Callable<D>() {
+                @Override
+                public D call() throws Exception {
+                    return preparePage(id);
+                }
+            });
+            this.id = id;
+            this.frame = frame;
+        }
+
+        @Override
+        protected void done() {
+            if (!isCancelled()) {
+                handler.post(bind);
+            }
+        }
+
+        private void bindPage() {
+            // Stale if the page was destroyed (and possibly re-instantiated) in the meantime
+            if (loads.get(frame) != this) {
+                return;
+            }
+            loads.remove(frame);
+            D data;
+            try {
+                data = get();
+            } catch (ExecutionException e) {
+                onPrepareFailed(frame, id, e.getCause());
+                return;
+            } catch (InterruptedException e) {
+                return;
+            }
+            View page = createPage(frame, id, data);
+            frame.removeAllViews();
+            addToFrame(frame, page);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.sampullman.pager;
+
+/**
+ * A page in the StreamViewPager window.
+ */
+class ItemInfo<T> {
+    Object object;
+    T id;
+    // Lookup key from StreamViewAdapter#getIdKey, and the child view the page maps to if known.
+    // The view is only used by StreamViewPager, it's an Object so the window stays platform-independent.
+    Object key;
+    Object view;
+    boolean scrolling;
+    // Added ahead of the window by PageWindow#prefetch, and not yet inside the offscreen limit
+    boolean prefetched;
+    // At least partly inside the pager's viewport, kept up to date by StreamViewPager
+    boolean visible;
+    int viewType = -1; // StreamViewAdapter.IGNORE_ITEM_VIEW_TYPE
+    // Position in the PageWindow, relative to the first page's, see PageWindow#indexOf
+    int order;
+    float widthFactor;
+    float offset;
+
+    void reset() {
+        object = null;
+        id = null;
+        key = null;
+        view = null;
+        scrolling = false;
+        prefetched = false;
+        visible = false;
+        viewType = -1;
+        order = 0;
+        widthFactor = 0;
+        offset = 0;
+    }
+}
@@ -0,0 +1,95 @@
+package com.sampullman.pager;
+
+/**
+ * Index of the pages in a PageWindow by their id key. Open addressing with linear probing over
+ * the pages themselves, so unlike a HashMap, adding a page doesn't allocate an entry.
+ */
+class ItemKeyIndex<T> {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private ItemInfo<T>[] table = newTable(INITIAL_CAPACITY);
+    private int size;
+
+    ItemInfo<T> get(Object key) {
+        final int mask = table.length - 1;
+        for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+            final ItemInfo<T> ii = table[slot];
+            if (ii == null || ii.key == key || ii.key.equals(key)) {
+                return ii;
+            }
+        }
+    }
+
+    /** Index a page by its key, replacing any page with an equal key. */
+    void put(ItemInfo<T> ii) {
+        // Keep the load at most a half so probe runs stay short
+        if ((size + 1) * 2 > table.length) {
+            resize(table.length * 2);
+        }
+        final int mask = table.length - 1;
+        int slot = hash(ii.key) & mask;
+        while (table[slot] != null) {
+            if (table[slot].key.equals(ii.key)) {
+                table[slot] = ii;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = ii;
+        size++;
+    }
+
+    void remove(Object key) {
+        final int mask = table.length - 1;
+        int slot = hash(key) & mask;
+        while (true) {
+            final ItemInfo<T> ii = table[slot];
+            if (ii == null) {
+                return;
+            }
+            if (ii.key == key || ii.key.equals(key)) {
+                break;
+            }
+            slot = (slot + 1) & mask;
+        }
+        // Shift later entries of the probe run back into the hole
+        int hole = slot;
+        for (int next = (hole + 1) & mask; table[next] != null; next = (next + 1) & mask) {
+            final int home = hash(table[next].key) & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                table[hole] = table[next];
+                hole = next;
+            }
+        }
+        table[hole] = null;
+        size--;
+    }
+
+    void clear() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = null;
+        }
+        size = 0;
+    }
+
+    private void resize(int capacity) {
+        final ItemInfo<T>[] old = table;
+        table = newTable(capacity);
+        size = 0;
+        for (ItemInfo<T> ii : old) {
+            if (ii != null) {
+                put(ii);
+            }
+        }
+    }
+
+    private static int hash(Object key) {
+        final int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> ItemInfo<T>[] newTable(int capacity) {
+        return (ItemInfo<T>[]) new ItemInfo<?>[capacity];
+    }
+}
@@ -0,0 +1,55 @@
+package com.sampullman.pager;
+
+/**
+ * Cache of boxed ids for LongStreamViewAdapter, so that walking the ids around the pager window
+ * hands out the same Long instances instead of allocating new ones. Open addressing over a power
+ * of two table of long keys, a miss in a full neighborhood overwrites the slot the key hashes to.
+ */
+class LongBoxCache {
+    private static final int PROBES = 4;
+
+    private final long[] keys;
+    private final Long[] boxes;
+    private final int mask;
+    private final int shift;
+
+    LongBoxCache(int capacity) {
+        final int size = Integer.highestOneBit(Math.max(capacity, PROBES) - 1) << 1;
+        keys = new long[size];
+        boxes = new Long[size];
+        mask = size - 1;
+        shift = 64 - Integer.numberOfTrailingZeros(size);
+    }
+
+    Long box(long id) {
+        final int hash = hash(id);
+        for (int i = 0; i < PROBES; i++) {
+            final int slot = (hash + i) & mask;
+            final Long box = boxes[slot];
+            if (box == null) {
+                return put(slot, id);
+            } else if (keys[slot] == id) {
+                return box;
+            }
+        }
+        return put(hash & mask, id);
+    }
+
+    void clear() {
+        for (int i = 0; i < boxes.length; i++) {
+            boxes[i] = null;
+        }
+    }
+
+    private Long put(int slot, long id) {
+        final Long box = id;
+        keys[slot] = id;
+        boxes[slot] = box;
+        return box;
+    }
+
+    // Fibonacci hashing, the top bits of the product spread runs of ids evenly over the table
+    private int hash(long id) {
+        return (int) ((id * 0x9E3779B97F4A7C15L) >>> shift);
+    }
+}
@@ -0,0 +1,34 @@
+package com.sampullman.pager;
+
+import android.view.View;
+import android.view.ViewGroup;
+
+/**
+ * A LongStreamViewAdapter whose page views are recycled by the pager, see
+ * {@link RecyclingAdapter}. All pages share view type 0 unless
+ * {@link #getItemViewType(Long)} is overridden.
+ */
+public abstract class LongRecyclingStreamViewAdapter extends LongStreamViewAdapter
+        implements RecyclingAdapter<Long> {
+
+    @Override
+    public int getItemViewType(Long id) {
+        return 0;
+    }
+
+    @Override
+    public void onViewRecycled(View view, Long id) {
+        // This space for rent
+    }
+
+    /**
+     * Creates and binds a view that isn't recycled, for pages of type IGNORE_ITEM_VIEW_TYPE.
+     */
+    @Override
+    public Object instantiateItem(ViewGroup container, Long id) {
+        final View view = createView(container, IGNORE_ITEM_VIEW_TYPE);
+        bindView(view, id);
+        container.addView(view);
+        return view;
+    }
+}
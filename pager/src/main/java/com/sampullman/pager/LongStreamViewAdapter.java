@@ -0,0 +1,77 @@
+package com.sampullman.pager;
+
+/**
+ * A StreamViewAdapter for streams with primitive long ids, such as page indexes. Navigation is
+ * implemented on longs, and the boxes of the last few hundred ids are cached, so swiping back and
+ * forth over ids that have been seen doesn't allocate. Only the first visit to an id boxes it.
+ */
+public abstract class LongStreamViewAdapter extends StreamViewAdapter<Long> {
+
+    // Returned by nextId/prevId when there is no next or previous id
+    public static final long NO_ID = Long.MIN_VALUE;
+
+    // Several times the pager's link cache, so ids it forgot are still boxed
+    private static final int BOX_CACHE_SIZE = 512;
+
+    private final LongBoxCache boxes = new LongBoxCache(BOX_CACHE_SIZE);
+
+    /** Returns the id after fromId, or NO_ID at the end of the stream. Must be the inverse of prevId. */
+    public abstract long nextId(long fromId);
+
+    /** Returns the id before fromId, or NO_ID at the start of the stream. Must be the inverse of nextId. */
+    public abstract long prevId(long fromId);
+
+    public abstract long initialId();
+
+    /** Returns the number of pages from fromId to toId, or UNKNOWN_DISTANCE. */
+    public int distance(long fromId, long toId) {
+        return UNKNOWN_DISTANCE;
+    }
+
+    /** Returns the sum of the page widths from fromId to toId, or NaN if unknown. */
+    public float offsetBetween(long fromId, long toId) {
+        return Float.NaN;
+    }
+
+    /** Returns the shared boxed instance of an id. */
+    protected final Long box(long id) {
+        return boxes.box(id);
+    }
+
+    @Override
+    public final Long nextId(Long fromId) {
+        final long id = nextId(fromId.longValue());
+        return id == NO_ID ? null : boxes.box(id);
+    }
+
+    @Override
+    public final Long prevId(Long fromId) {
+        final long id = prevId(fromId.longValue());
+        return id == NO_ID ? null : boxes.box(id);
+    }
+
+    @Override
+    public boolean hasNext(Long fromId) {
+        return nextId(fromId.longValue()) != NO_ID;
+    }
+
+    @Override
+    public boolean hasPrev(Long fromId) {
+        return prevId(fromId.longValue()) != NO_ID;
+    }
+
+    @Override
+    public final Long initialViewId() {
+        return boxes.box(initialId());
+    }
+
+    @Override
+    public final int distance(Long fromId, Long toId) {
+        return distance(fromId.longValue(), toId.longValue());
+    }
+
+    @Override
+    public final float offsetBetween(Long fromId, Long toId) {
+        return offsetBetween(fromId.longValue(), toId.longValue());
+    }
+}
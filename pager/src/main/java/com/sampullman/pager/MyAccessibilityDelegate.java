@@ -29,10 +29,10 @@ public class MyAccessibilityDelegate<T> extends AccessibilityDelegateCompat {
 
         T curItem = pager.getCurrentViewId();
 
-        if (adapter != null && adapter.hasNext(curItem)) {
+        if (adapter != null && pager.hasIdAfter(curItem)) {
             info.addAction(AccessibilityNodeInfoCompat.ACTION_SCROLL_FORWARD);
         }
-        if (adapter != null && adapter.hasPrev(curItem)) {
+        if (adapter != null && pager.hasIdBefore(curItem)) {
             info.addAction(AccessibilityNodeInfoCompat.ACTION_SCROLL_BACKWARD);
         }
     }
@@ -46,7 +46,7 @@ public class MyAccessibilityDelegate<T> extends AccessibilityDelegateCompat {
         switch (action) {
             case AccessibilityNodeInfoCompat.ACTION_SCROLL_FORWARD: {
                 if(adapter != null) {
-                    T nextId = adapter.nextId(curItem);
+                    T nextId = pager.idAfter(curItem);
                     if (nextId != null) {
                         pager.setCurrentItem(nextId);
                         return true;
@@ -55,7 +55,7 @@ public class MyAccessibilityDelegate<T> extends AccessibilityDelegateCompat {
             } return false;
             case AccessibilityNodeInfoCompat.ACTION_SCROLL_BACKWARD: {
                 if(adapter != null) {
-                    T prevId = adapter.prevId(curItem);
+                    T prevId = pager.idBefore(curItem);
                     if (prevId != null) {
                         pager.setCurrentItem(prevId);
                         return true;
@@ -0,0 +1,149 @@
+package com.sampullman.pager;
+
+/**
+ * Bounded cache of the prev/next links between page ids, so that walking the stream around
+ * the pager window doesn't ask the adapter for the same link over and over. Entries are keyed
+ * by the adapter's id key in a fixed table of preallocated links, a new key in a full
+ * neighborhood overwrites the slot it hashes to, so lookups never allocate.
+ */
+class NeighborCache<T> {
+    private static final int PROBES = 4;
+
+    static class Links<T> {
+        T prev;
+        T next;
+        boolean prevResolved;
+        boolean nextResolved;
+
+        void reset() {
+            prev = null;
+            next = null;
+            prevResolved = false;
+            nextResolved = false;
+        }
+    }
+
+    private Object[] keys;
+    private Links<T>[] links;
+    private int mask;
+
+    NeighborCache(int capacity) {
+        setCapacity(capacity);
+    }
+
+    /** Resize the table to hold about capacity links. Drops the cached links if the size changes. */
+    void setCapacity(int capacity) {
+        final int size = Integer.highestOneBit(Math.max(2 * capacity, PROBES) - 1) << 1;
+        if (keys != null && keys.length == size) {
+            return;
+        }
+        keys = new Object[size];
+        links = newLinks(size);
+        mask = size - 1;
+    }
+
+    /** Returns the id after the given id, asking the adapter only if the link isn't cached. */
+    T next(StreamViewAdapter<T> adapter, T id) {
+        final Links<T> l = linksFor(adapter.getIdKey(id));
+        if (l.nextResolved) {
+            return l.next;
+        }
+        final T next = adapter.nextId(id);
+        l.next = next;
+        l.nextResolved = true;
+        if (next != null) {
+            // The reverse link comes for free. It may take over the slot of l, so l is done
+            final Links<T> nextLinks = linksFor(adapter.getIdKey(next));
+            nextLinks.prev = id;
+            nextLinks.prevResolved = true;
+        }
+        return next;
+    }
+
+    /** Returns the id before the given id, asking the adapter only if the link isn't cached. */
+    T prev(StreamViewAdapter<T> adapter, T id) {
+        final Links<T> l = linksFor(adapter.getIdKey(id));
+        if (l.prevResolved) {
+            return l.prev;
+        }
+        final T prev = adapter.prevId(id);
+        l.prev = prev;
+        l.prevResolved = true;
+        if (prev != null) {
+            final Links<T> prevLinks = linksFor(adapter.getIdKey(prev));
+            prevLinks.next = id;
+            prevLinks.nextResolved = true;
+        }
+        return prev;
+    }
+
+    /** Returns the links recorded for the given key, creating an unresolved entry if needed. */
+    Links<T> linksFor(Object key) {
+        final int slot = find(key);
+        if (slot >= 0) {
+            return links[slot];
+        }
+        final int free = freeSlot(key);
+        keys[free] = key;
+        final Links<T> l = links[free];
+        l.reset();
+        return l;
+    }
+
+    /** Returns the links recorded for the given key, or null if there are none. */
+    Links<T> peek(Object key) {
+        final int slot = find(key);
+        return slot >= 0 ? links[slot] : null;
+    }
+
+    void remove(Object key) {
+        final int slot = find(key);
+        if (slot >= 0) {
+            keys[slot] = null;
+            links[slot].reset();
+        }
+    }
+
+    void clear() {
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = null;
+            links[i].reset();
+        }
+    }
+
+    private int find(Object key) {
+        final int hash = hash(key);
+        for (int i = 0; i < PROBES; i++) {
+            final int slot = (hash + i) & mask;
+            if (key.equals(keys[slot])) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private int freeSlot(Object key) {
+        final int hash = hash(key);
+        for (int i = 0; i < PROBES; i++) {
+            final int slot = (hash + i) & mask;
+            if (keys[slot] == null) {
+                return slot;
+            }
+        }
+        return hash & mask;
+    }
+
+    private static int hash(Object key) {
+        final int h = key.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Links<T>[] newLinks(int size) {
+        final Links<T>[] links = (Links<T>[]) new Links<?>[size];
+        for (int i = 0; i < size; i++) {
+            links[i] = new Links<>();
+        }
+        return links;
+    }
+}
@@ -0,0 +1,16 @@
+package com.sampullman.pager;
+
+/**
+ * Callback interface for pages coming into and going out of view in a StreamViewPager.
+ */
+public interface OnPageVisibilityChangeListener<T> {
+    /**
+     * This method will be invoked when part of a page scrolls into view, and when the page
+     * leaves the view entirely or is destroyed. Hidden pages can pause work such as
+     * animations or playback.
+     *
+     * @param pageId Id of the page
+     * @param visible True if some of the page is now in view
+     */
+    void onPageVisibilityChanged(T pageId, boolean visible);
+}
@@ -0,0 +1,14 @@
+package com.sampullman.pager;
+
+/**
+ * Callback interface for receiving the performance metrics of each swipe of a StreamViewPager.
+ */
+public interface OnPagerMetricsListener {
+    /**
+     * This method will be invoked when the pager returns to SCROLL_STATE_IDLE after a
+     * swipe or programmatic scroll.
+     *
+     * @param metrics Counters collected since the pager left SCROLL_STATE_IDLE
+     */
+    void onSwipeMetrics(PagerMetrics metrics);
+}
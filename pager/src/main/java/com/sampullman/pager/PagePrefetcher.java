@@ -0,0 +1,78 @@
+package com.sampullman.pager;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.view.Choreographer;
+
+/**
+ * Prefetches pages for a StreamViewPager in the idle time between frames, in the style of
+ * RecyclerView's GapWorker. Work is posted from a Choreographer frame callback, so it runs after
+ * the frame has been drawn, and is skipped while it's predicted to overrun the next frame.
+ */
+class PagePrefetcher implements Runnable {
+    private final StreamViewPager<?> pager;
+    private final Object frameCallback;
+    private boolean scheduled;
+    // Start of the frame the prefetch was scheduled from, and the deadline for the work after it
+    private long frameTimeNanos;
+    long frameIntervalNanos = 16666667;
+    // Running average of the time taken to prefetch a page
+    private long averageCostNanos;
+
+    PagePrefetcher(StreamViewPager<?> pager) {
+        this.pager = pager;
+        frameCallback = Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN
+                ? new FrameCallbackApi16() : null;
+    }
+
+    void schedule() {
+        if (scheduled) {
+            return;
+        }
+        scheduled = true;
+        if (frameCallback != null) {
+            Choreographer.getInstance().postFrameCallback((Choreographer.FrameCallback) frameCallback);
+        } else {
+            frameTimeNanos = System.nanoTime();
+            pager.post(this);
+        }
+    }
+
+    void cancel() {
+        if (!scheduled) {
+            return;
+        }
+        scheduled = false;
+        if (frameCallback != null) {
+            Choreographer.getInstance().removeFrameCallback((Choreographer.FrameCallback) frameCallback);
+        }
+        pager.removeCallbacks(this);
+    }
+
+    @Override
+    public void run() {
+        scheduled = false;
+        final long startTime = System.nanoTime();
+        // There's no frame to protect while the pager is idle, otherwise wait for a frame
+        // with enough time left
+        if (!pager.isScrollIdle() && startTime + averageCostNanos > frameTimeNanos + frameIntervalNanos) {
+            if (pager.hasPageToPrefetch()) {
+                schedule();
+            }
+            return;
+        }
+        if (pager.prefetchPage()) {
+            final long cost = System.nanoTime() - startTime;
+            averageCostNanos = averageCostNanos == 0 ? cost : (averageCostNanos * 3 + cost) / 4;
+        }
+    }
+
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+    private class FrameCallbackApi16 implements Choreographer.FrameCallback {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            PagePrefetcher.this.frameTimeNanos = frameTimeNanos;
+            pager.post(PagePrefetcher.this);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.sampullman.pager;
+
+/**
+ * Supplies page ids and pages to a PageWindow. StreamViewPager implements this on top of its
+ * StreamViewAdapter, adding caching, recycling and instrumentation.
+ */
+interface PageSource<T> {
+    T nextId(T id);
+
+    T prevId(T id);
+
+    /** Returns the proportional width of a page, see StreamViewAdapter#getPageWidth. */
+    float pageWidth(T id);
+
+    /** Returns the lookup key for an id, see StreamViewAdapter#getIdKey. */
+    Object idKey(T id);
+
+    boolean hasAtLeastOneItem();
+
+    /** Compares two ids in stream order, or returns 0 if their order isn't known. */
+    int compareIds(T a, T b);
+
+    /**
+     * Returns the offset from the start of page a to the start of page b, margins included,
+     * or NaN if it can't be found without walking the ids in between.
+     */
+    float offsetBetween(T a, T b, float marginOffset);
+
+    /** Create the page for ii.id and fill in ii.object, and ii.viewType/ii.view if used. */
+    void instantiate(ItemInfo<T> ii);
+
+    /** Destroy or recycle a page that has been removed from the window. */
+    void destroy(ItemInfo<T> ii);
+}
@@ -0,0 +1,97 @@
+package com.sampullman.pager;
+
+/**
+ * Bounded cache of page width factors keyed by the adapter's id key, so offset computation
+ * only asks the adapter for a page's width once between invalidations. Widths are kept
+ * unboxed in a fixed table, a new key in a full neighborhood overwrites the slot it hashes to.
+ */
+class PageWidthCache {
+    // Returned by get when there is no cached width
+    static final float NO_WIDTH = -1.f;
+
+    private static final int PROBES = 4;
+
+    private Object[] keys;
+    private float[] widths;
+    private int mask;
+
+    PageWidthCache(int capacity) {
+        setCapacity(capacity);
+    }
+
+    /** Resize the table to hold about capacity widths. Drops the cached widths if the size changes. */
+    void setCapacity(int capacity) {
+        final int size = Integer.highestOneBit(Math.max(2 * capacity, PROBES) - 1) << 1;
+        if (keys != null && keys.length == size) {
+            return;
+        }
+        keys = new Object[size];
+        widths = new float[size];
+        mask = size - 1;
+    }
+
+    /** Returns the width factor of the given page, asking the adapter only if it isn't cached. */
+    <T> float widthOf(StreamViewAdapter<T> adapter, T id) {
+        final Object key = adapter.getIdKey(id);
+        float width = get(key);
+        if (width == NO_WIDTH) {
+            width = adapter.getPageWidth(id);
+            put(key, width);
+        }
+        return width;
+    }
+
+    float get(Object key) {
+        final int slot = find(key);
+        return slot >= 0 ? widths[slot] : NO_WIDTH;
+    }
+
+    void put(Object key, float width) {
+        int slot = find(key);
+        if (slot < 0) {
+            slot = freeSlot(key);
+            keys[slot] = key;
+        }
+        widths[slot] = width;
+    }
+
+    void remove(Object key) {
+        final int slot = find(key);
+        if (slot >= 0) {
+            keys[slot] = null;
+        }
+    }
+
+    void clear() {
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = null;
+        }
+    }
+
+    private int find(Object key) {
+        final int hash = hash(key);
+        for (int i = 0; i < PROBES; i++) {
+            final int slot = (hash + i) & mask;
+            if (key.equals(keys[slot])) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private int freeSlot(Object key) {
+        final int hash = hash(key);
+        for (int i = 0; i < PROBES; i++) {
+            final int slot = (hash + i) & mask;
+            if (keys[slot] == null) {
+                return slot;
+            }
+        }
+        return hash & mask;
+    }
+
+    private static int hash(Object key) {
+        final int h = key.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
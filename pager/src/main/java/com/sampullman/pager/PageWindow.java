@@ -0,0 +1,541 @@
+package com.sampullman.pager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+
+/**
+ * The window of pages kept around the current page of a StreamViewPager, and the logic that
+ * fills it, lays out page offsets and picks scroll targets. Offsets are in units of the pager
+ * width. This class has no Android dependencies, so it can be exercised on a plain JVM.
+ */
+class PageWindow<T> {
+    // For determining whether an Id is before or after another Id
+    enum IdPosition {
+        BEFORE, EQUAL, AFTER
+    }
+
+    private final PageSource<T> source;
+    private final ItemDeque<ItemInfo<T>> items = new ItemDeque<>();
+    // Index into items, kept in sync by addNewItem and removeItem
+    private final ItemKeyIndex<T> itemsByKey = new ItemKeyIndex<>();
+    // ItemInfo.order of the first item, so an item's index is its order minus this. Only the
+    // difference matters, so it may wrap around.
+    private int firstOrder;
+    // Pages destroyed by populate and reconcile, reused by addNewItem
+    private static final int POOL_SIZE = 8;
+    private final ArrayList<ItemInfo<T>> pool = new ArrayList<>(POOL_SIZE);
+    // Destroyed during the current populate. They're only pooled once it's done, since the
+    // previous current page may still be needed to compute offsets.
+    private final ArrayList<ItemInfo<T>> destroyed = new ArrayList<>(POOL_SIZE);
+    // Scratch list for reconcile
+    private final ArrayList<ItemInfo<T>> reconciled = new ArrayList<>();
+
+    // Offsets of the first and last items, if known.
+    // Set during population, used to determine if we are at the beginning
+    // or end of the pager data set during touch scrolling.
+    float firstOffset = -Float.MAX_VALUE;
+    float lastOffset = Float.MAX_VALUE;
+
+    // Optional, receives the time spent calculating offsets
+    PagerMetricsRecorder metrics;
+
+    // False if the last populate left pages out because of its budget
+    boolean filled = true;
+
+    PageWindow(PageSource<T> source) {
+        this.source = source;
+    }
+
+    int size() {
+        return items.size();
+    }
+
+    ItemInfo<T> get(int index) {
+        return items.get(index);
+    }
+
+    int indexOf(ItemInfo<T> ii) {
+        if (ii == null || ii.key == null || itemsByKey.get(ii.key) != ii) {
+            return -1;
+        }
+        return ii.order - firstOrder;
+    }
+
+    void clear() {
+        items.clear();
+        itemsByKey.clear();
+        firstOrder = 0;
+    }
+
+    ItemInfo<T> infoForId(T id) {
+        if (id == null) {
+            return null;
+        }
+        return itemsByKey.get(source.idKey(id));
+    }
+
+    int indexForId(T id) {
+        return indexOf(infoForId(id));
+    }
+
+    ItemInfo<T> addNewItem(T id, int index) {
+        final ItemInfo<T> ii = pool.isEmpty() ? new ItemInfo<T>() : pool.remove(pool.size() - 1);
+        ii.id = id;
+        source.instantiate(ii);
+        ii.widthFactor = source.pageWidth(id);
+        ii.key = source.idKey(id);
+        insert(index < 0 || index >= items.size() ? items.size() : index, ii);
+        itemsByKey.put(ii);
+        return ii;
+    }
+
+    ItemInfo<T> removeItem(int index) {
+        final ItemInfo<T> ii = delete(index);
+        itemsByKey.remove(ii.key);
+        return ii;
+    }
+
+    // Add or remove an item, keeping the orders in step with the indexes. Swipes only touch the
+    // ends of the window, where no other item needs renumbering.
+    private void insert(int index, ItemInfo<T> ii) {
+        items.add(index, ii);
+        if (index == 0) {
+            ii.order = --firstOrder;
+        } else {
+            renumber(index);
+        }
+    }
+
+    private ItemInfo<T> delete(int index) {
+        final ItemInfo<T> ii = items.remove(index);
+        if (index == 0) {
+            firstOrder++;
+        } else {
+            renumber(index);
+        }
+        return ii;
+    }
+
+    private void renumber(int from) {
+        for (int i = from; i < items.size(); i++) {
+            items.get(i).order = firstOrder + i;
+        }
+    }
+
+    // Destroy a page that left the window and keep it for reuse
+    private void destroy(ItemInfo<T> ii) {
+        source.destroy(ii);
+        destroyed.add(ii);
+    }
+
+    private void recycleDestroyed() {
+        for (int i = 0; i < destroyed.size() && pool.size() < POOL_SIZE; i++) {
+            final ItemInfo<T> ii = destroyed.get(i);
+            ii.reset();
+            pool.add(ii);
+        }
+        destroyed.clear();
+    }
+
+    /**
+     * Bring the window in line with changed links between ids. Pages that can still be reached
+     * by walking from the current page keep their place in the new order, the rest are destroyed.
+     * Call populate afterwards to fill the window.
+     *
+     * @param curItemId Id of the current page
+     */
+    void reconcile(T curItemId) {
+        final int size = items.size();
+        if (size == 0) {
+            return;
+        }
+        final ItemInfo<T> curItem = infoForId(curItemId);
+        int found = curItem != null ? 1 : 0;
+        // Pages further than the window's size from the current page would be dropped anyway
+        T id = curItemId;
+        for (int steps = 0; steps < size && found < size && (id = source.prevId(id)) != null; steps++) {
+            final ItemInfo<T> ii = infoForId(id);
+            if (ii != null && !reconciled.contains(ii)) {
+                reconciled.add(ii);
+                found++;
+            }
+        }
+        Collections.reverse(reconciled);
+        if (curItem != null) {
+            reconciled.add(curItem);
+        }
+        id = curItemId;
+        for (int steps = 0; steps < size && found < size && (id = source.nextId(id)) != null; steps++) {
+            final ItemInfo<T> ii = infoForId(id);
+            if (ii != null && !reconciled.contains(ii)) {
+                reconciled.add(ii);
+                found++;
+            }
+        }
+        if (found < size) {
+            for (int i = 0; i < size; i++) {
+                final ItemInfo<T> ii = items.get(i);
+                if (!reconciled.contains(ii)) {
+                    itemsByKey.remove(ii.key);
+                    destroy(ii);
+                }
+            }
+        }
+        items.clear();
+        for (int i = 0; i < reconciled.size(); i++) {
+            items.add(i, reconciled.get(i));
+        }
+        renumber(0);
+        reconciled.clear();
+        recycleDestroyed();
+    }
+
+    IdPosition relativePosition(T id1, T id2) {
+        final ItemInfo<T> item1 = infoForId(id1);
+        final ItemInfo<T> item2 = infoForId(id2);
+        if (item1 == item2) {
+            return IdPosition.EQUAL;
+        }
+        if (item1 == null || item2 == null) {
+            // Outside the window, only the source can tell
+            final int order = source.compareIds(id1, id2);
+            return order < 0 ? IdPosition.BEFORE : order > 0 ? IdPosition.AFTER : IdPosition.EQUAL;
+        }
+        final int mark1 = indexOf(item1);
+        final int mark2 = indexOf(item2);
+        if(mark1 == -1 || mark2 == -1 || mark1 == mark2) {
+            return IdPosition.EQUAL;
+        } else if(mark1 < mark2) {
+            return IdPosition.BEFORE;
+        } else {
+            return IdPosition.AFTER;
+        }
+    }
+
+    /**
+     * Fill the window around curItemId, destroying pages that are no longer needed, and
+     * recalculate page offsets.
+     *
+     * @param curItemId Id of the current page
+     * @param oldCurInfo The previous current page if it changed, used as the base for offsets
+     * @param oldPos Position of the previous current page relative to the new one
+     * @param limitBefore Pages to keep before the current page
+     * @param limitAfter Pages to keep after the current page
+     * @param marginOffset Page margin as a fraction of the pager width
+     * @return The current page, or null if there is none
+     */
+    ItemInfo<T> populate(T curItemId, ItemInfo<T> oldCurInfo, IdPosition oldPos,
+                         int limitBefore, int limitAfter, float marginOffset) {
+        return populate(curItemId, oldCurInfo, oldPos, limitBefore, limitAfter, marginOffset,
+                Integer.MAX_VALUE, true);
+    }
+
+    /**
+     * Populate in steps. Nearer pages are added first, since the loops walk outwards from the
+     * current page, and {@link #filled} tells whether the budget cut the fill short.
+     *
+     * @param maxNewPages Most pages to instantiate, the rest are left for a later call
+     * @param trim False to keep pages outside the limits, e.g. until the final step
+     */
+    ItemInfo<T> populate(T curItemId, ItemInfo<T> oldCurInfo, IdPosition oldPos,
+                         int limitBefore, int limitAfter, float marginOffset,
+                         int maxNewPages, boolean trim) {
+        filled = true;
+        int newPages = 0;
+        // Locate the currently focused item or add it if needed.
+        ItemInfo<T> curItem = infoForId(curItemId);
+        int curIndex = curItem != null ? indexOf(curItem) : insertionIndex(curItemId);
+        if (curItem == null && source.hasAtLeastOneItem()) {
+            curItem = addNewItem(curItemId, curIndex);
+            newPages++;
+        }
+        // Fill 3x the available width or up to the number of offscreen
+        // pages requested to either side, whichever is larger.
+        // If we have no current item we have no work to do.
+        if (curItem == null) {
+            return null;
+        }
+        float extraWidthLeft = 0.f;
+        int itemIndex = curIndex - 1;
+        ItemInfo<T> ii = itemIndex >= 0 ? items.get(itemIndex) : null;
+        final float leftWidthNeeded = 2.f - curItem.widthFactor;
+        T idIter = source.prevId(curItemId);
+        int iterCount = 0;
+        // A prefetched page just past the edge of the window is kept for the next populate
+        boolean pastEdge = false;
+        while(idIter != null) {
+            if (extraWidthLeft >= leftWidthNeeded && (iterCount >= limitBefore)) {
+                // Pages kept for a scroll in progress are cleaned up once it completes
+                if (!trim || ii == null || ii.scrolling) {
+                    break;
+                }
+                // Destroy any items that need destroyin' (too far off screen due to scroll)
+                if (idIter.equals(ii.id)) {
+                    if (ii.prefetched && !pastEdge) {
+                        itemIndex--;
+                    } else {
+                        removeItem(itemIndex);
+                        destroy(ii);
+                        itemIndex--;
+                        curIndex--;
+                    }
+                    ii = itemIndex >= 0 ? items.get(itemIndex) : null;
+                }
+                pastEdge = true;
+            } else if (ii != null && idIter.equals(ii.id)) {
+                ii.prefetched = false;
+                extraWidthLeft += ii.widthFactor;
+                itemIndex--;
+                ii = itemIndex >= 0 ? items.get(itemIndex) : null;
+            } else {
+                if (newPages == maxNewPages) {
+                    filled = false;
+                    break;
+                }
+                ii = addNewItem(idIter, itemIndex + 1);
+                newPages++;
+                extraWidthLeft += ii.widthFactor;
+                curIndex++;
+                ii = itemIndex >= 0 ? items.get(itemIndex) : null;
+            }
+            idIter = source.prevId(idIter);
+            iterCount += 1;
+        }
+        float extraWidthRight = curItem.widthFactor;
+        itemIndex = curIndex + 1;
+        if (extraWidthRight < 2.f) {
+            ii = itemIndex < items.size() ? items.get(itemIndex) : null;
+            idIter = source.nextId(curItemId);
+            iterCount = 0;
+            pastEdge = false;
+            while(idIter != null) {
+                if (extraWidthRight >= 2.f && (iterCount >= limitAfter)) {
+                    if (!trim || ii == null || ii.scrolling) {
+                        break;
+                    }
+                    if (idIter.equals(ii.id)) {
+                        if (ii.prefetched && !pastEdge) {
+                            itemIndex++;
+                        } else {
+                            removeItem(itemIndex);
+                            destroy(ii);
+                        }
+                        ii = itemIndex < items.size() ? items.get(itemIndex) : null;
+                    }
+                    pastEdge = true;
+                } else if (ii != null && idIter.equals(ii.id)) {
+                    ii.prefetched = false;
+                    extraWidthRight += ii.widthFactor;
+                    itemIndex++;
+                    ii = itemIndex < items.size() ? items.get(itemIndex) : null;
+                } else {
+                    if (newPages == maxNewPages) {
+                        filled = false;
+                        break;
+                    }
+                    ii = addNewItem(idIter, itemIndex);
+                    newPages++;
+                    itemIndex++;
+                    extraWidthRight += ii.widthFactor;
+                    ii = itemIndex < items.size() ? items.get(itemIndex) : null;
+                }
+                idIter = source.nextId(idIter);
+                iterCount += 1;
+            }
+        }
+        final long offsetsStartTime = metrics != null && metrics.recording ? System.nanoTime() : 0;
+        calculatePageOffsets(curItem, curIndex, oldCurInfo, oldPos, marginOffset);
+        if (metrics != null && metrics.recording) {
+            metrics.pageOffsetsCalculated(System.nanoTime() - offsetsStartTime);
+        }
+        recycleDestroyed();
+        return curItem;
+    }
+
+    // Index a new page belongs at, the end of the window if the source can't order ids
+    private int insertionIndex(T id) {
+        for (int i = 0; i < items.size(); i++) {
+            if (source.compareIds(id, items.get(i).id) < 0) {
+                return i;
+            }
+        }
+        return items.size();
+    }
+
+    /**
+     * Add the page just past the edge of the window in the given direction, so it's ready when
+     * a later populate needs it. At most one page is prefetched on each side.
+     *
+     * @param forward True to prefetch after the last page, false to prefetch before the first
+     * @param marginOffset Page margin as a fraction of the pager width
+     * @return The prefetched page, or null if there is nothing to prefetch
+     */
+    ItemInfo<T> prefetch(boolean forward, float marginOffset) {
+        if (items.isEmpty()) {
+            return null;
+        }
+        final ItemInfo<T> edge = forward ? items.get(items.size() - 1) : items.get(0);
+        if (edge.prefetched) {
+            return null;
+        }
+        final T id = forward ? source.nextId(edge.id) : source.prevId(edge.id);
+        if (id == null || infoForId(id) != null) {
+            return null;
+        }
+        final ItemInfo<T> ii = addNewItem(id, forward ? items.size() : 0);
+        ii.prefetched = true;
+        ii.offset = forward ? edge.offset + edge.widthFactor + marginOffset
+                : edge.offset - ii.widthFactor - marginOffset;
+        return ii;
+    }
+
+    void calculatePageOffsets(ItemInfo<T> curItem, int curIndex, ItemInfo<T> oldCurInfo,
+                              IdPosition oldPos, float marginOffset) {
+        // Fix up offsets for later layout.
+        if (oldCurInfo != null) {
+            final T oldCurId = oldCurInfo.id;
+            // Base offsets off of oldCurInfo, in one step if the source knows the distance.
+            // Only the current page's offset matters, the rest are rebased on it below.
+            final float jump = oldPos == IdPosition.EQUAL ? Float.NaN
+                    : source.offsetBetween(oldCurId, curItem.id, marginOffset);
+            if (!Float.isNaN(jump)) {
+                curItem.offset = oldCurInfo.offset + jump;
+            } else if (oldPos == IdPosition.BEFORE) {
+                float offset = oldCurInfo.offset + oldCurInfo.widthFactor + marginOffset;
+                for (T id = source.nextId(oldCurId); id != null; id = source.nextId(id)) {
+                    // Pages outside the window still take up their width
+                    final ItemInfo<T> ii = infoForId(id);
+                    if (ii == null) {
+                        offset += source.pageWidth(id) + marginOffset;
+                        continue;
+                    }
+                    ii.offset = offset;
+                    if (ii == curItem) break;
+                    offset += ii.widthFactor + marginOffset;
+                }
+            } else if (oldPos == IdPosition.AFTER) {
+                float offset = oldCurInfo.offset;
+                for (T id = source.prevId(oldCurId); id != null; id = source.prevId(id)) {
+                    final ItemInfo<T> ii = infoForId(id);
+                    offset -= (ii != null ? ii.widthFactor : source.pageWidth(id)) + marginOffset;
+                    if (ii != null) {
+                        ii.offset = offset;
+                        if (ii == curItem) break;
+                    }
+                }
+            }
+        }
+        // Base all offsets off of curItemId.
+        final int itemCount = items.size();
+        float offset = curItem.offset;
+        T prevId = source.prevId(curItem.id);
+        T nextId = source.nextId(curItem.id);
+        firstOffset = (prevId == null) ? curItem.offset : -Float.MAX_VALUE;
+        lastOffset = (nextId == null) ?
+                curItem.offset + curItem.widthFactor - 1 : Float.MAX_VALUE;
+        // Previous pages. Gaps in the window are skipped in one step if the source knows the
+        // distance, otherwise walked one page at a time.
+        ItemInfo<T> anchor = curItem;
+        for (int i = curIndex - 1; i >= 0 && prevId != null; i--, prevId=source.prevId(prevId)) {
+            final ItemInfo<T> ii = items.get(i);
+            final float gap = prevId.equals(ii.id) ? Float.NaN
+                    : source.offsetBetween(ii.id, anchor.id, marginOffset);
+            if (Float.isNaN(gap)) {
+                while (prevId != null && !prevId.equals(ii.id)) {
+
+                    offset -= source.pageWidth(prevId) + marginOffset;
+                    prevId = source.prevId(prevId);
+                }
+                offset -= ii.widthFactor + marginOffset;
+            } else {
+                offset = anchor.offset - gap;
+                prevId = ii.id;
+            }
+            ii.offset = offset;
+            anchor = ii;
+            if (prevId == null) firstOffset = offset;
+        }
+        offset = curItem.offset + curItem.widthFactor + marginOffset;
+        // Next pages
+        anchor = curItem;
+        for (int i = curIndex + 1; nextId != null && i < itemCount; i++, nextId =source.nextId(nextId)) {
+            final ItemInfo<T> ii = items.get(i);
+            final float gap = nextId.equals(ii.id) ? Float.NaN
+                    : source.offsetBetween(anchor.id, ii.id, marginOffset);
+            if (Float.isNaN(gap)) {
+                while (nextId != null && !nextId.equals(ii.id)) {
+
+                    offset += source.pageWidth(nextId) + marginOffset;
+                    nextId = source.nextId(nextId);
+                }
+                if (nextId == null) {
+                    lastOffset = offset + ii.widthFactor - 1;
+                }
+            } else {
+                offset = anchor.offset + gap;
+                nextId = ii.id;
+            }
+            ii.offset = offset;
+            anchor = ii;
+            offset += ii.widthFactor + marginOffset;
+        }
+    }
+
+    /**
+     * @param scrollOffset Scroll position as a fraction of the pager width
+     * @param marginOffset Page margin as a fraction of the pager width
+     * @return Info about the page at the given scroll position, or null if the window is empty.
+     */
+    ItemInfo<T> infoForScrollPosition(float scrollOffset, float marginOffset) {
+        boolean first = true;
+        ItemInfo<T> lastItem = null;
+        for (int i = 0; i < items.size(); i++) {
+            ItemInfo<T> ii = items.get(i);
+            final float leftBound = ii.offset;
+            final float rightBound = ii.offset + ii.widthFactor + marginOffset;
+            if (first || scrollOffset >= leftBound) {
+                if (scrollOffset < rightBound || i == items.size() - 1) {
+                    return ii;
+                }
+            } else {
+                return lastItem;
+            }
+            first = false;
+            lastItem = ii;
+        }
+        return lastItem;
+    }
+
+    /**
+     * Pick the page to settle on when a drag ends.
+     *
+     * @param currentId Id of the page at the current scroll position
+     * @param pageOffset Scroll offset into that page, as a fraction of its width
+     * @param fling True if the drag was fast and long enough to count as a fling
+     * @param velocity Horizontal velocity of the drag
+     * @return Id of the target page
+     */
+    T determineTargetPage(T currentId, float pageOffset, boolean fling, int velocity) {
+        int index = indexForId(currentId);
+        T targetId = currentId;
+        int distance = (int)(pageOffset + 0.5f);
+
+        if (fling) {
+            if(index + 1 < items.size()) {
+                targetId = velocity > 0 ? currentId : source.nextId(currentId);
+            }
+        } else {
+            int dir = (distance < 0) ? 1 : -1;
+            targetId = currentId;
+            while(distance != 0 && targetId != null) {
+                int targetIndex = index + (dir * -1);
+                if(targetIndex < 0 || targetIndex >= items.size()) {
+                    break;
+                }
+                targetId = (dir == 1) ? source.nextId(targetId) : source.prevId(targetId);
+                distance += dir;
+            }
+        }
+        return targetId;
+    }
+}
@@ -0,0 +1,56 @@
+package com.sampullman.pager;
+
+/**
+ * Performance counters for a single swipe or programmatic scroll of a StreamViewPager, from
+ * the moment the pager leaves SCROLL_STATE_IDLE until it returns to it.
+ * See {@link StreamViewPager#setOnPagerMetricsListener(OnPagerMetricsListener)}.
+ */
+public class PagerMetrics {
+    // Time from the finger lifting (or a programmatic settle starting) to SCROLL_STATE_IDLE
+    public final long settleTimeNanos;
+    // Number of pages created or bound through the adapter
+    public final int pagesInstantiated;
+    // Number of pages destroyed or recycled through the adapter
+    public final int pagesDestroyed;
+    // Total and longest time spent creating a single page
+    public final long instantiateTimeNanos;
+    public final long maxInstantiateTimeNanos;
+    // Number of populate passes, and the time spent in them including instantiating pages and
+    // calculating offsets
+    public final int populates;
+    public final long populateTimeNanos;
+    // Time spent calculating page offsets
+    public final long pageOffsetsTimeNanos;
+    // Number of settle animation frames, and how many of them arrived later than the frame budget
+    public final int frames;
+    public final int slowFrames;
+
+    PagerMetrics(long settleTimeNanos, int pagesInstantiated, int pagesDestroyed,
+                 long instantiateTimeNanos, long maxInstantiateTimeNanos, int populates,
+                 long populateTimeNanos, long pageOffsetsTimeNanos, int frames, int slowFrames) {
+        this.settleTimeNanos = settleTimeNanos;
+        this.pagesInstantiated = pagesInstantiated;
+        this.pagesDestroyed = pagesDestroyed;
+        this.instantiateTimeNanos = instantiateTimeNanos;
+        this.maxInstantiateTimeNanos = maxInstantiateTimeNanos;
+        this.populates = populates;
+        this.populateTimeNanos = populateTimeNanos;
+        this.pageOffsetsTimeNanos = pageOffsetsTimeNanos;
+        this.frames = frames;
+        this.slowFrames = slowFrames;
+    }
+
+    @Override
+    public String toString() {
+        return "PagerMetrics{settle=" + settleTimeNanos / 1000000 + "ms"
+                + ", instantiated=" + pagesInstantiated
+                + ", destroyed=" + pagesDestroyed
+                + ", instantiateTotal=" + instantiateTimeNanos / 1000 + "us"
+                + ", instantiateMax=" + maxInstantiateTimeNanos / 1000 + "us"
+                + ", populates=" + populates
+                + ", populate=" + populateTimeNanos / 1000 + "us"
+                + ", offsets=" + pageOffsetsTimeNanos / 1000 + "us"
+                + ", frames=" + frames
+                + ", slowFrames=" + slowFrames + "}";
+    }
+}
@@ -0,0 +1,80 @@
+package com.sampullman.pager;
+
+/**
+ * Accumulates the counters for the PagerMetrics of the swipe in progress.
+ */
+class PagerMetricsRecorder {
+    static final long DEFAULT_FRAME_BUDGET = 16666667; // ns
+
+    // True between begin and finish
+    boolean recording;
+    long frameBudgetNanos = DEFAULT_FRAME_BUDGET;
+
+    private long releaseTime;
+    private long lastFrameTime;
+    private int pagesInstantiated;
+    private int pagesDestroyed;
+    private long instantiateTime;
+    private long maxInstantiateTime;
+    private int populates;
+    private long populateTime;
+    private long pageOffsetsTime;
+    private int frames;
+    private int slowFrames;
+
+    void begin() {
+        recording = true;
+        releaseTime = 0;
+        lastFrameTime = 0;
+        pagesInstantiated = 0;
+        pagesDestroyed = 0;
+        instantiateTime = 0;
+        maxInstantiateTime = 0;
+        populates = 0;
+        populateTime = 0;
+        pageOffsetsTime = 0;
+        frames = 0;
+        slowFrames = 0;
+    }
+
+    /** Marks the finger lifting, or a programmatic settle starting. Only the first call counts. */
+    void release(long now) {
+        if (releaseTime == 0) {
+            releaseTime = now;
+        }
+    }
+
+    void instantiated(long duration) {
+        pagesInstantiated++;
+        instantiateTime += duration;
+        maxInstantiateTime = Math.max(maxInstantiateTime, duration);
+    }
+
+    void destroyed() {
+        pagesDestroyed++;
+    }
+
+    void populated(long duration) {
+        populates++;
+        populateTime += duration;
+    }
+
+    void pageOffsetsCalculated(long duration) {
+        pageOffsetsTime += duration;
+    }
+
+    void frame(long now) {
+        if (lastFrameTime != 0 && now - lastFrameTime > frameBudgetNanos) {
+            slowFrames++;
+        }
+        lastFrameTime = now;
+        frames++;
+    }
+
+    PagerMetrics finish(long now) {
+        recording = false;
+        final long settleTime = releaseTime != 0 ? now - releaseTime : 0;
+        return new PagerMetrics(settleTime, pagesInstantiated, pagesDestroyed, instantiateTime,
+                maxInstantiateTime, populates, populateTime, pageOffsetsTime, frames, slowFrames);
+    }
+}
@@ -0,0 +1,23 @@
+package com.sampullman.pager;
+
+/**
+ * Receives begin/end calls around the main units of work done by a StreamViewPager, so that
+ * pager work can be seen in traces. Sections are strictly nested and always begin and end on
+ * the UI thread. See {@link StreamViewPager#setTracer(PagerTracer)}.
+ */
+public interface PagerTracer {
+    // Building the page window around the current page
+    int SECTION_POPULATE = 0;
+    // Creating or binding a page through the adapter
+    int SECTION_INSTANTIATE = 1;
+    // Destroying or recycling a page through the adapter
+    int SECTION_DESTROY = 2;
+    int SECTION_MEASURE = 3;
+    int SECTION_LAYOUT = 4;
+    // One animation frame of a settle, or finishing a settle
+    int SECTION_SETTLE = 5;
+
+    void beginSection(int section);
+
+    void endSection(int section);
+}
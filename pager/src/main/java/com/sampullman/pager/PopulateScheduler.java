@@ -0,0 +1,99 @@
+package com.sampullman.pager;
+
+/**
+ * Coalesces requests to populate a StreamViewPager. A request marks the window dirty and posts
+ * a single flush for the next frame, so any number of requests in a frame cost one populate.
+ * Once a pass has run in a frame, the posted flush waits for the next one, which starts when
+ * the host reports the frame drawn. Measure, layout and callers that need the window filled
+ * right away flush it themselves, whether or not a pass already ran.
+ */
+class PopulateScheduler {
+    interface Host {
+        /** Run the given runnable at the start of the next frame. */
+        void postFlush(Runnable flush);
+
+        /** Populate the window, or return false if it can't be populated yet. */
+        boolean populateNow();
+    }
+
+    private final Host host;
+    private boolean dirty;
+    private boolean posted;
+    // A pass has run since the last frame was drawn
+    private boolean passInFrame;
+    // The posted flush was put off a frame because a pass had already run
+    private boolean deferred;
+    // Populate passes run, to confirm that requests are coalesced
+    private int passes;
+
+    private final Runnable flushRunnable = new Runnable() {
+        @Override
+        public void run() {
+            posted = false;
+            if (passInFrame && !deferred) {
+                // Put off once, the next run is in a later frame even if this one isn't drawn
+                deferred = true;
+                post();
+                return;
+            }
+            deferred = false;
+            passInFrame = false;
+            flush();
+        }
+    };
+
+    PopulateScheduler(Host host) {
+        this.host = host;
+    }
+
+    void markDirty() {
+        dirty = true;
+        post();
+    }
+
+    boolean isDirty() {
+        return dirty;
+    }
+
+    int getPasses() {
+        return passes;
+    }
+
+    /** Populate now if the window is dirty. */
+    void flush() {
+        if (!dirty) {
+            return;
+        }
+        // Cleared first, so a request made while populating isn't lost
+        dirty = false;
+        if (host.populateNow()) {
+            passed();
+        } else {
+            // Wait for the next request or flush
+            dirty = true;
+        }
+    }
+
+    /** Record a populate the host ran itself, which leaves the window clean. */
+    void populated() {
+        dirty = false;
+        passed();
+    }
+
+    /** Start a new frame, called once the host has drawn. */
+    void frameDrawn() {
+        passInFrame = false;
+    }
+
+    private void passed() {
+        passes++;
+        passInFrame = true;
+    }
+
+    private void post() {
+        if (!posted) {
+            posted = true;
+            host.postFlush(flushRunnable);
+        }
+    }
+}
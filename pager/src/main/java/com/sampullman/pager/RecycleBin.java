@@ -0,0 +1,57 @@
+package com.sampullman.pager;
+
+import android.util.SparseArray;
+import android.util.SparseIntArray;
+import android.view.View;
+
+import java.util.ArrayList;
+
+/**
+ * Holds page views that have left the StreamViewPager window so they can be rebound to
+ * new ids instead of being re-created. Views are kept in separate scrap heaps per view type.
+ */
+class RecycleBin {
+    static final int DEFAULT_MAX_SCRAP = 3;
+
+    private final SparseArray<ArrayList<View>> scrapHeaps = new SparseArray<>();
+    private final SparseIntArray maxScrap = new SparseIntArray();
+
+    void setMaxScrap(int viewType, int max) {
+        maxScrap.put(viewType, max);
+        ArrayList<View> heap = scrapHeaps.get(viewType);
+        while (heap != null && heap.size() > max) {
+            heap.remove(heap.size() - 1);
+        }
+    }
+
+    int getMaxScrap(int viewType) {
+        return maxScrap.get(viewType, DEFAULT_MAX_SCRAP);
+    }
+
+    /** Returns a scrapped view of the given type, or null if there are none. */
+    View get(int viewType) {
+        ArrayList<View> heap = scrapHeaps.get(viewType);
+        if (heap == null || heap.isEmpty()) {
+            return null;
+        }
+        return heap.remove(heap.size() - 1);
+    }
+
+    /** Add a view to its scrap heap. Returns false if the heap is full and the view was dropped. */
+    boolean put(int viewType, View view) {
+        ArrayList<View> heap = scrapHeaps.get(viewType);
+        if (heap == null) {
+            heap = new ArrayList<>();
+            scrapHeaps.put(viewType, heap);
+        }
+        if (heap.size() >= getMaxScrap(viewType)) {
+            return false;
+        }
+        heap.add(view);
+        return true;
+    }
+
+    void clear() {
+        scrapHeaps.clear();
+    }
+}
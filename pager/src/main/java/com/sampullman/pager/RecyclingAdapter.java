@@ -0,0 +1,39 @@
+package com.sampullman.pager;
+
+import android.view.View;
+import android.view.ViewGroup;
+
+/**
+ * Implemented by StreamViewAdapters whose page views are recycled by the pager. Views are
+ * created with {@link #createView(ViewGroup, int)} and rebound with
+ * {@link #bindView(View, Object)}, and a page that leaves the window has its view kept for reuse
+ * by a page of the same view type instead of going through destroyItem.
+ * {@link RecyclingStreamViewAdapter} and {@link LongRecyclingStreamViewAdapter} implement it on
+ * top of the two adapter kinds.
+ *
+ * @param <T> Page id type
+ */
+public interface RecyclingAdapter<T> {
+
+    /**
+     * Returns the view type of the page with the given id. Pages with the same view type share
+     * recycled views. Return IGNORE_ITEM_VIEW_TYPE to create the page with
+     * {@link StreamViewAdapter#instantiateItem(ViewGroup, Object)} instead.
+     *
+     * @param id The id of the page requested
+     * @return View type of the page
+     */
+    int getItemViewType(T id);
+
+    /**
+     * Create a new page view of the given type. The pager adds the view to itself,
+     * so it must not be added to the container here.
+     */
+    View createView(ViewGroup container, int viewType);
+
+    /** Bind a new or recycled page view to the given id. */
+    void bindView(View view, T id);
+
+    /** Called when a page view has left the pager window and is about to be recycled. */
+    void onViewRecycled(View view, T id);
+}
@@ -0,0 +1,35 @@
+package com.sampullman.pager;
+
+import android.view.View;
+import android.view.ViewGroup;
+
+/**
+ * A StreamViewAdapter whose page views are recycled by the pager, see {@link RecyclingAdapter}.
+ * All pages share view type 0 unless {@link #getItemViewType(Object)} is overridden.
+ *
+ * @param <T> Page id type
+ */
+public abstract class RecyclingStreamViewAdapter<T> extends StreamViewAdapter<T>
+        implements RecyclingAdapter<T> {
+
+    @Override
+    public int getItemViewType(T id) {
+        return 0;
+    }
+
+    @Override
+    public void onViewRecycled(View view, T id) {
+        // This space for rent
+    }
+
+    /**
+     * Creates and binds a view that isn't recycled, for pages of type IGNORE_ITEM_VIEW_TYPE.
+     */
+    @Override
+    public Object instantiateItem(ViewGroup container, T id) {
+        final View view = createView(container, IGNORE_ITEM_VIEW_TYPE);
+        bindView(view, id);
+        container.addView(view);
+        return view;
+    }
+}
@@ -28,6 +28,13 @@ public class StreamPagerLayoutParams extends ViewGroup.LayoutParams {
     // true if this view was added during layout and must be measured before being positioned.
     public boolean needsMeasure;
 
+    // true while the pager has given this view a hardware layer for scrolling.
+    boolean scrollingLayer;
+
+    // Specs this view was last measured with by the pager, 0 if it must be measured again.
+    int lastWidthSpec;
+    int lastHeightSpec;
+
     public StreamPagerLayoutParams() {
         super(FILL_PARENT, FILL_PARENT);
     }
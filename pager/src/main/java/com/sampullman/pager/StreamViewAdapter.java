@@ -3,6 +3,9 @@ package com.sampullman.pager;
 import android.view.View;
 import android.view.ViewGroup;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+
 import static com.sampullman.pager.StreamViewAdapter.CountIndicator.*;
 
 public abstract class StreamViewAdapter<T> {
@@ -11,6 +14,22 @@ public abstract class StreamViewAdapter<T> {
         FINITE, INFINITE, UNKNOWN
     }
 
+    // View type for pages that are not recycled by the pager, see RecyclingAdapter
+    public static final int IGNORE_ITEM_VIEW_TYPE = -1;
+
+    // Returned by distance when the number of pages between two ids isn't known
+    public static final int UNKNOWN_DISTANCE = Integer.MIN_VALUE;
+
+    private final ArrayList<AdapterObserver<T>> observers = new ArrayList<>();
+
+    void registerObserver(AdapterObserver<T> observer) {
+        observers.add(observer);
+    }
+
+    void unregisterObserver(AdapterObserver<T> observer) {
+        observers.remove(observer);
+    }
+
     public CountIndicator countIndicator() {
         return INFINITE;
     }
@@ -21,7 +40,17 @@ public abstract class StreamViewAdapter<T> {
         return (count == INFINITE) || (count == UNKNOWN);
     }
 
+    /**
+     * Returns the id of the page after fromId, or null at the end of the stream. The links must
+     * be symmetric: if nextId(a) returns b, prevId(b) must return a. The pager relies on this
+     * when it caches the reverse of every link it walks, see {@link #cacheIdNavigation()}.
+     */
     public abstract T nextId(T fromId);
+
+    /**
+     * Returns the id of the page before fromId, or null at the start of the stream. If
+     * prevId(b) returns a, nextId(a) must return b.
+     */
     public abstract T prevId(T fromId);
 
     // Convenience functions for checking for next/prev
@@ -32,8 +61,120 @@ public abstract class StreamViewAdapter<T> {
         return prevId(fromId) != null;
     }
 
+    /**
+     * Returns true if the pager may cache the results of nextId/prevId. Each cached link also
+     * fills in the link back, so nextId and prevId must be inverses of each other. Override to
+     * return false if the links between ids change without {@link #notifyIdsChanged()} being
+     * called, or if they aren't symmetric.
+     */
+    public boolean cacheIdNavigation() {
+        return true;
+    }
+
+    /**
+     * Notify attached pagers that the ids returned by nextId/prevId have changed, which
+     * invalidates any cached links between ids.
+     */
+    public void notifyIdsChanged() {
+        for (int i = 0; i < observers.size(); i++) {
+            observers.get(i).onIdsChanged();
+        }
+    }
+
+    /**
+     * Returns a comparator that orders ids the way nextId walks them, or null if ids have no
+     * cheap ordering. With an ordering the pager can tell which way a jump goes when the target
+     * page is outside its window, instead of assuming it comes after every page in the window.
+     */
+    public Comparator<? super T> getIdComparator() {
+        return null;
+    }
+
+    /**
+     * Returns the number of pages from one id to another, so that walking nextId that many
+     * times from fromId reaches toId. Used to order ids when there is no comparator, and to
+     * add page margins to {@link #offsetBetween(Object, Object)}.
+     *
+     * @return Pages from fromId to toId, negative if toId comes first, or UNKNOWN_DISTANCE
+     */
+    public int distance(T fromId, T toId) {
+        return UNKNOWN_DISTANCE;
+    }
+
+    /**
+     * Returns the sum of the page widths (see {@link #getPageWidth(Object)}) from the start of
+     * one page to the start of another. Implementing this along with distance lets the pager
+     * position distant pages without asking for every page in between.
+     *
+     * @return Width from fromId to toId, negative if toId comes first, or NaN if unknown
+     */
+    public float offsetBetween(T fromId, T toId) {
+        return Float.NaN;
+    }
+
+    /**
+     * Notify attached pagers that anything in the stream may have changed. Pages still linked to
+     * the current page that use view types keep their views, and are rebound with
+     * {@link RecyclingAdapter#bindView(View, Object)}. Other pages still linked to it are
+     * destroyed and instantiated again. Pages that left the stream are destroyed. The current id
+     * must still be in the stream.
+     */
+    public void notifyDataSetChanged() {
+        for (int i = 0; i < observers.size(); i++) {
+            observers.get(i).onDataSetChanged();
+        }
+    }
+
+    /**
+     * Notify attached pagers that ids were inserted into the stream. Call this once nextId and
+     * prevId return the new ids.
+     *
+     * @param afterId Id the new ids follow, or null if they were inserted at the start
+     * @param count Number of ids inserted
+     */
+    public void notifyIdsInserted(T afterId, int count) {
+        if (count <= 0) {
+            return;
+        }
+        for (int i = 0; i < observers.size(); i++) {
+            observers.get(i).onIdsInserted(afterId);
+        }
+    }
+
+    /**
+     * Notify attached pagers that an id was removed from the stream. Call this once nextId and
+     * prevId skip it. If it was the current page, the page after it becomes current, or the
+     * page before it at the end of the stream.
+     *
+     * @param id The id that was removed
+     */
+    public void notifyIdRemoved(T id) {
+        for (int i = 0; i < observers.size(); i++) {
+            observers.get(i).onIdRemoved(id);
+        }
+    }
+
+    /**
+     * Notify attached pagers that the content of a page changed. A page using a view type is
+     * rebound in place, otherwise it's destroyed and instantiated again.
+     *
+     * @param id The id of the page that changed
+     */
+    public void notifyPageChanged(T id) {
+        for (int i = 0; i < observers.size(); i++) {
+            observers.get(i).onPageChanged(id);
+        }
+    }
+
     public abstract T initialViewId();
 
+    /**
+     * Create the page for the given id and add it to the container.
+     *
+     * @param container The pager the page will be shown in
+     * @param id The id of the page requested
+     * @return An object representing the page, usually the page view itself
+     */
     public abstract Object instantiateItem(ViewGroup container, T id);
 
     public void destroyItem(ViewGroup container, T id, Object object) {
@@ -44,6 +185,27 @@ public abstract class StreamViewAdapter<T> {
         return view == object;
     }
 
+    /**
+     * Returns the key the pager uses to index the page with the given id. Override this if
+     * the id's equals/hashCode are expensive and there is a cheaper stable key, e.g. a database
+     * row id. Equal ids must return equal keys.
+     *
+     * @param id The id of the page
+     * @return Hash key for the id, the id itself by default
+     */
+    public Object getIdKey(T id) {
+        return id;
+    }
+
+    /**
+     * Returns true if the page with the given id may be drawn from a hardware layer while the
+     * pager scrolls, see {@link StreamViewPager#setScrollingLayersEnabled(boolean)}. Override to
+     * return false for pages whose content changes as they move, e.g. video or animations.
+     */
+    public boolean useScrollingLayer(T id) {
+        return true;
+    }
+
     /**
      * Returns the proportional width of a given page as a percentage of the
      * ViewPager's measured width from (0.f-1.f]
@@ -54,4 +216,23 @@ public abstract class StreamViewAdapter<T> {
     public float getPageWidth(T id) {
         return 1.f;
     }
+
+    /**
+     * Notify attached pagers that the value returned from {@link #getPageWidth(Object)}
+     * has changed for a page. Pagers cache page widths until notified.
+     *
+     * @param id The id of the page whose width changed
+     */
+    public void notifyPageWidthChanged(T id) {
+        for (int i = 0; i < observers.size(); i++) {
+            observers.get(i).onPageWidthChanged(id);
+        }
+    }
+
+    /** Notify attached pagers that any number of page widths have changed. */
+    public void notifyAllPageWidthsChanged() {
+        for (int i = 0; i < observers.size(); i++) {
+            observers.get(i).onAllPageWidthsChanged();
+        }
+    }
 }
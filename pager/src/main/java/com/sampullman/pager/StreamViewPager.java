@@ -21,6 +21,7 @@ import android.content.Context;
 import android.graphics.Canvas;
 import android.graphics.Rect;
 import android.graphics.drawable.Drawable;
+import android.os.Build;
 import android.support.v4.view.KeyEventCompat;
 import android.support.v4.view.MotionEventCompat;
 import android.support.v4.view.VelocityTrackerCompat;
@@ -28,7 +29,6 @@ import android.support.v4.view.ViewCompat;
 import android.support.v4.view.ViewConfigurationCompat;
 import android.support.v4.widget.EdgeEffectCompat;
 import android.util.AttributeSet;
-import android.util.Log;
 import android.view.FocusFinder;
 import android.view.KeyEvent;
 import android.view.MotionEvent;
@@ -38,30 +38,24 @@ import android.view.View;
 import android.view.ViewConfiguration;
 import android.view.ViewGroup;
 import android.view.ViewParent;
+import android.view.Display;
 import android.view.accessibility.AccessibilityEvent;
 import android.view.animation.Interpolator;
+import android.widget.OverScroller;
 import android.widget.Scroller;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
 
 public class StreamViewPager<T> extends ViewGroup {
-    private static final String TAG = "ViewPager";
-    private static final boolean DEBUG = true;
-    private static final boolean USE_CACHE = false;
     private static final int DEFAULT_OFFSCREEN_PAGES = 1;
     private static final int MAX_SETTLE_DURATION = 600; // ms
     private static final int MIN_DISTANCE_FOR_FLING = 25; // dips
     private static final int DEFAULT_GUTTER_SIZE = 16; // dips
-    static class ItemInfo<T> {
-        Object object;
-        T id;
-        boolean scrolling;
-        float widthFactor;
-        float offset;
-    }
-    // Ror determining whether an Id is before or after another Id
-    private enum IdPosition {
-        BEFORE, EQUAL, AFTER
-    }
+    // Most pages a momentum fling walks past to find its target
+    private static final int MAX_MOMENTUM_PAGES = 100;
+    private static final int DEFAULT_MAX_SCROLLING_LAYERS = 3;
 
     private static final Interpolator interpolator = new Interpolator() {
         public float getInterpolation(float t) {
@@ -69,25 +63,224 @@ public class StreamViewPager<T> extends ViewGroup {
             return t * t * t * t * t + 1.0f;
         }
     };
-    private final ArrayList<ItemInfo<T>> items = new ArrayList<>();
-    private final ItemInfo<T> tempItem = new ItemInfo<>();
+    private final PageSource<T> pageSource = new PageSource<T>() {
+        @Override
+        public T nextId(T id) {
+            return idAfter(id);
+        }
+
+        @Override
+        public T prevId(T id) {
+            return idBefore(id);
+        }
+
+        @Override
+        public float pageWidth(T id) {
+            return StreamViewPager.this.pageWidth(id);
+        }
+
+        @Override
+        public Object idKey(T id) {
+            return adapter.getIdKey(id);
+        }
+
+        @Override
+        public boolean hasAtLeastOneItem() {
+            return adapter.hasAtLeastOneItem();
+        }
+
+        @Override
+        public int compareIds(T a, T b) {
+            final Comparator<? super T> comparator = adapter.getIdComparator();
+            if (comparator != null) {
+                return comparator.compare(a, b);
+            }
+            final int distance = adapter.distance(a, b);
+            return distance == StreamViewAdapter.UNKNOWN_DISTANCE ? 0 : -distance;
+        }
+
+        @Override
+        public float offsetBetween(T a, T b, float marginOffset) {
+            final float widths = adapter.offsetBetween(a, b);
+            if (Float.isNaN(widths) || marginOffset == 0) {
+                return widths;
+            }
+            final int distance = adapter.distance(a, b);
+            return distance == StreamViewAdapter.UNKNOWN_DISTANCE ? Float.NaN
+                    : widths + distance * marginOffset;
+        }
+
+        @Override
+        public void instantiate(ItemInfo<T> ii) {
+            instantiateItem(ii);
+        }
+
+        @Override
+        public void destroy(ItemInfo<T> ii) {
+            destroyItem(ii);
+        }
+    };
+    // The pages around the current page
+    private final PageWindow<T> window = new PageWindow<>(pageSource);
+    // Index of the window by child view, kept in sync by instantiateItem and destroyItem
+    private final IdentityHashMap<View, ItemInfo<T>> itemsByView = new IdentityHashMap<>();
     private final Rect tempRect = new Rect();
+    private final RecycleBin recycleBin = new RecycleBin();
+    private final NeighborCache<T> neighborCache = new NeighborCache<>(neighborCacheCapacity(DEFAULT_OFFSCREEN_PAGES));
+    private final PageWidthCache pageWidths = new PageWidthCache(neighborCacheCapacity(DEFAULT_OFFSCREEN_PAGES));
+    private final AdapterObserver<T> adapterObserver = new AdapterObserver<T>() {
+        @Override
+        public void onIdsChanged() {
+            neighborCache.clear();
+            reconcileWindow(false);
+        }
+
+        @Override
+        public void onDataSetChanged() {
+            neighborCache.clear();
+            pageWidths.clear();
+            reconcileWindow(true);
+        }
+
+        @Override
+        public void onIdsInserted(T afterId) {
+            final NeighborCache.Links<T> links = afterId != null
+                    ? neighborCache.peek(adapter.getIdKey(afterId)) : null;
+            if (links == null) {
+                // The ids next to the insertion aren't known
+                neighborCache.clear();
+            } else {
+                if (links.nextResolved && links.next != null) {
+                    forgetLink(links.next, false);
+                }
+                links.nextResolved = false;
+            }
+            reconcileWindow(false);
+        }
+
+        @Override
+        public void onIdRemoved(T id) {
+            final Object key = adapter.getIdKey(id);
+            final NeighborCache.Links<T> links = neighborCache.peek(key);
+            if (links == null || !links.prevResolved || !links.nextResolved) {
+                neighborCache.clear();
+            } else {
+                if (links.prev != null) {
+                    forgetLink(links.prev, true);
+                }
+                if (links.next != null) {
+                    forgetLink(links.next, false);
+                }
+                neighborCache.remove(key);
+            }
+            final ItemInfo<T> ii = infoForId(id);
+            if (ii == null || !id.equals(curItemId)) {
+                reconcileWindow(false);
+                return;
+            }
+            // The page after the removed one takes its place, or the one before at the end
+            final int index = window.indexOf(ii);
+            final ItemInfo<T> replacement = index + 1 < window.size() ? window.get(index + 1)
+                    : index > 0 ? window.get(index - 1) : null;
+            if (replacement == null) {
+                destroyWindow();
+                curItemId = adapter.initialViewId();
+                populate();
+            } else {
+                curItemId = replacement.id;
+                reconcileWindow(false);
+                flushPopulate();
+                completeScroll();
+                final ItemInfo<T> curInfo = infoForId(curItemId);
+                if (curInfo != null) {
+                    pagerScrollTo((int) (getWidth() * curInfo.offset), getScrollY());
+                }
+            }
+            requestLayout();
+            if (pageChangeListener != null && curItemId != null) {
+                pageChangeListener.onPageSelected(curItemId);
+            }
+        }
+
+        @Override
+        public void onPageChanged(T id) {
+            pageWidths.remove(adapter.getIdKey(id));
+            final ItemInfo<T> ii = infoForId(id);
+            if (ii != null) {
+                rebindItem(ii);
+                // The page's width is requeried, and a recreated page is measured from it
+                populate();
+                requestLayout();
+            }
+        }
+
+        @Override
+        public void onPageWidthChanged(T id) {
+            pageWidths.remove(adapter.getIdKey(id));
+            final ItemInfo<T> ii = infoForId(id);
+            if (ii != null) {
+                updateWidthFactor(ii);
+            }
+            populate();
+            requestLayout();
+        }
+
+        @Override
+        public void onAllPageWidthsChanged() {
+            pageWidths.clear();
+            for (int i = 0; i < window.size(); i++) {
+                updateWidthFactor(window.get(i));
+            }
+            populate();
+            requestLayout();
+        }
+    };
     private StreamViewAdapter<T> adapter;
     private T curItemId;   // Index of currently displayed page.
     private Scroller scroller;
+    // Only used to work out how far a momentum fling would travel
+    private OverScroller flingScroller;
+    private boolean momentumFlingEnabled;
+    // In translation scroll mode the pager's own scroll stays at 0, and pages are moved by
+    // setting their translationX to -translationScrollX
+    private boolean translationScrollEnabled;
+    private int translationScrollX;
+    // Advances a settle in translation scroll mode, where computeScroll isn't called
+    private final Runnable settleStep = new Runnable() {
+        @Override
+        public void run() {
+            advanceScroll();
+        }
+    };
     private int pageMargin;
     private Drawable marginDrawable;
     private int topPageBounds;
     private int bottomPageBounds;
-    // Offsets of the first and last items, if known.
-    // Set during population, used to determine if we are at the beginning
-    // or end of the pager data set during touch scrolling.
-    private float firstOffset = -Float.MAX_VALUE;
-    private float lastOffset = Float.MAX_VALUE;
     private boolean inLayout;
     private boolean scrollingCacheEnabled;
+    // Draw the pages nearest the viewport from hardware layers while scrolling
+    private boolean scrollingLayersEnabled;
+    private int maxScrollingLayers = DEFAULT_MAX_SCROLLING_LAYERS;
     private boolean populatePending;
+    private final PopulateScheduler populateScheduler = new PopulateScheduler(new PopulateScheduler.Host() {
+        @Override
+        public void postFlush(Runnable flush) {
+            ViewCompat.postOnAnimation(StreamViewPager.this, flush);
+        }
+
+        @Override
+        public boolean populateNow() {
+            return StreamViewPager.this.populateNow(null, PageWindow.IdPosition.EQUAL);
+        }
+    });
+    // Pages kept ahead of and behind the current page. Ahead means after the current page,
+    // or in the direction of the last swipe in adaptive mode.
     private int offscreenPageLimit = DEFAULT_OFFSCREEN_PAGES;
+    private int offscreenPagesBehind = DEFAULT_OFFSCREEN_PAGES;
+    // Upper bound on the pages kept ahead in adaptive mode, 0 if the limits are fixed
+    private int adaptiveMaxAhead;
+    private int swipeStreak;
+    private boolean lastSwipeForward = true;
     private boolean isBeingDragged;
     private boolean isUnableToDrag;
     private int defaultGutterSize;
@@ -120,6 +313,44 @@ public class StreamViewPager<T> extends ViewGroup {
     private boolean firstLayout = true;
     private boolean calledSuper;
     private OnPageChangeListener<T> pageChangeListener;
+    private PagerTracer tracer = new SystemPagerTracer();
+    private OnPagerMetricsListener metricsListener;
+    private OnPageVisibilityChangeListener<T> visibilityListener;
+    private final PagerMetricsRecorder metrics = new PagerMetricsRecorder();
+    private PagerMetrics lastSwipeMetrics;
+    // Set while completeScroll runs, so the populate after a settle counts towards its metrics
+    private boolean completingScroll;
+    // Set when the swipe's metrics are to be finished by the next populate
+    private boolean finishMetricsAfterPopulate;
+    private final PagePrefetcher prefetcher = new PagePrefetcher(this);
+    private boolean prefetchEnabled = false;
+    // Set while the prefetcher instantiates a page, so it's added without requesting a layout
+    private boolean prefetching;
+    // Direction of the last swipe or drag, pages are prefetched ahead of it
+    private boolean travelForward = true;
+    // Set from touch down until the first move, while travelForward is only a guess
+    private boolean speculating;
+    // Key of the page prefetched on the guess, so it can be dropped if the guess was wrong
+    private Object speculativeKey;
+    private boolean teleportEnabled = false;
+    // The page a teleport jump is scrolling away from. It's outside the window, placed next to
+    // the target page, and destroyed when the scroll completes.
+    private ItemInfo<T> teleportGhost;
+    // Key of the page the window was last filled around during the current drag
+    private Object dragCenterKey;
+    private boolean incrementalPopulateEnabled = false;
+    // Offscreen distance the window is filled to after a settle, or -1 if it isn't filling.
+    // Each step instantiates at most one page, and the next step runs on the next frame.
+    private int fillRadius = -1;
+    private final Runnable fillStep = new Runnable() {
+        @Override
+        public void run() {
+            populate();
+            if (fillRadius < 0) {
+                schedulePrefetch();
+            }
+        }
+    };
 
     // Indicates that the pager is fully in view and no animation is in progress.
     public static final int SCROLL_STATE_IDLE = 0;
@@ -143,8 +374,10 @@ public class StreamViewPager<T> extends ViewGroup {
         setWillNotDraw(false);
         setDescendantFocusability(FOCUS_AFTER_DESCENDANTS);
         setFocusable(true);
+        window.metrics = metrics;
         final Context context = getContext();
         scroller = new Scroller(context, interpolator);
+        flingScroller = new OverScroller(context);
         final ViewConfiguration configuration = ViewConfiguration.get(context);
         touchSlop = ViewConfigurationCompat.getScaledPagingTouchSlop(configuration);
         minimumVelocity = configuration.getScaledMinimumFlingVelocity();
@@ -167,6 +400,11 @@ public class StreamViewPager<T> extends ViewGroup {
             return;
         }
         this.scrollState = newState;
+        if (newState == SCROLL_STATE_IDLE) {
+            // However the scroll ended, e.g. a settle that didn't move
+            setScrollingCacheEnabled(false);
+        }
+        updateMetricsForScrollState(newState);
         if (pageChangeListener != null) {
             pageChangeListener.onPageScrollStateChanged(newState);
         }
@@ -175,12 +413,20 @@ public class StreamViewPager<T> extends ViewGroup {
     /** Set a PagerAdapter that will supply views for this pager as needed. */
     public void setAdapter(StreamViewAdapter<T> adapter) {
         if (this.adapter != null) {
-            items.clear();
+            finishTeleport();
+            this.adapter.unregisterObserver(adapterObserver);
+            // Let the old adapter release its pages, e.g. cancel pending async loads
+            destroyWindow();
+            itemsByView.clear();
+            recycleBin.clear();
+            neighborCache.clear();
+            pageWidths.clear();
             removeAllViews();
-            scrollTo(0, 0);
+            pagerScrollTo(0, 0);
         }
         this.adapter = adapter;
         if (this.adapter != null) {
+            adapter.registerObserver(adapterObserver);
             curItemId = adapter.initialViewId();
             populatePending = false;
             firstLayout = true;
@@ -188,6 +434,120 @@ public class StreamViewPager<T> extends ViewGroup {
         }
     }
 
+    /**
+     * Replace the adapter with one that shares ids with the current one, e.g. a refreshed
+     * snapshot of the same stream. Unlike {@link #setAdapter(StreamViewAdapter)}, the current id
+     * is kept, so it must exist in the new adapter's stream.
+     *
+     * @param newAdapter Adapter to switch to
+     * @param reuseMatchingPages True to keep the pages whose ids are still around the current
+     *                           page and whose view type is the same in the new adapter. They
+     *                           are rebound with the new adapter instead of being recreated.
+     */
+    public void swapAdapter(StreamViewAdapter<T> newAdapter, boolean reuseMatchingPages) {
+        if (adapter == null || newAdapter == null || curItemId == null) {
+            setAdapter(newAdapter);
+            return;
+        }
+        completeScroll();
+        adapter.unregisterObserver(adapterObserver);
+        // Let the old adapter release the pages the new one can't take over
+        for (int i = window.size() - 1; i >= 0; i--) {
+            final ItemInfo<T> ii = window.get(i);
+            if (!reuseMatchingPages || ii.viewType == StreamViewAdapter.IGNORE_ITEM_VIEW_TYPE
+                    || viewTypeOf(newAdapter, ii.id) != ii.viewType) {
+                window.removeItem(i);
+                destroyItem(ii);
+            }
+        }
+        if (!reuseMatchingPages) {
+            recycleBin.clear();
+        }
+        neighborCache.clear();
+        pageWidths.clear();
+        adapter = newAdapter;
+        adapter.registerObserver(adapterObserver);
+        populatePending = false;
+        // Drops the pages that left the stream and rebinds the rest
+        reconcileWindow(true);
+        flushPopulate();
+        final ItemInfo<T> curInfo = infoForId(curItemId);
+        if (curInfo != null) {
+            pagerScrollTo((int) (getWidth() * curInfo.offset), getScrollY());
+        }
+    }
+
+    private void destroyWindow() {
+        finishTeleport();
+        cancelIncrementalFill();
+        for (int i = 0; i < window.size(); i++) {
+            destroyItem(window.get(i));
+        }
+        window.clear();
+    }
+
+    // Drop cached links to or from the given id, in one direction
+    private void forgetLink(T id, boolean next) {
+        final NeighborCache.Links<T> links = neighborCache.peek(adapter.getIdKey(id));
+        if (links != null) {
+            if (next) {
+                links.nextResolved = false;
+            } else {
+                links.prevResolved = false;
+            }
+        }
+    }
+
+    /**
+     * Update the window after the links between ids changed, keeping the pages that are still
+     * around the current page.
+     *
+     * @param rebind True to rebind the surviving pages, or recreate those without a view type
+     */
+    private void reconcileWindow(boolean rebind) {
+        if (adapter == null) {
+            return;
+        }
+        finishTeleport();
+        window.reconcile(curItemId);
+        for (int i = 0; i < window.size(); i++) {
+            final ItemInfo<T> ii = window.get(i);
+            if (rebind) {
+                // Pages without a view type can't be rebound, so they're instantiated again
+                rebindItem(ii);
+            } else {
+                updateWidthFactor(ii);
+            }
+        }
+        populate();
+        requestLayout();
+    }
+
+    // Update a page in place after its content changed
+    private void rebindItem(ItemInfo<T> ii) {
+        if (ii.viewType != StreamViewAdapter.IGNORE_ITEM_VIEW_TYPE
+                && ii.viewType == viewTypeOf(adapter, ii.id)) {
+            ((RecyclingAdapter<T>) adapter).bindView((View) ii.object, ii.id);
+        } else {
+            destroyItem(ii);
+            ii.view = null;
+            instantiateItem(ii);
+        }
+        updateWidthFactor(ii);
+    }
+
+    /**
+     * Set the maximum number of recycled page views of a view type that will be held for reuse.
+     * Only applies to adapters that provide view types, see
+     * {@link RecyclingAdapter#getItemViewType(Object)}.
+     *
+     * @param viewType View type the limit applies to
+     * @param max Maximum number of scrapped views of that type. Defaults to 3.
+     */
+    public void setMaxRecycledViews(int viewType, int max) {
+        recycleBin.setMaxScrap(viewType, max);
+    }
+
     public StreamViewAdapter<T> getAdapter() {
         return adapter;
     }
@@ -216,37 +576,34 @@ public class StreamViewPager<T> extends ViewGroup {
     }
 
     void setCurrentItemInternal(T id, boolean smoothScroll, boolean always) {
-        setCurrentItemInternal(id, smoothScroll, always, 0);
+        setCurrentItemInternal(id, smoothScroll, always, 0, teleportEnabled);
     }
 
     boolean idWithinPageLimit(T id) {
-        if(id == null) {
-            return false;
-        }
-        for (ItemInfo info : items) {
-            if(id.equals(info.id)) {
-                return true;
-            }
-        }
-        return false;
+        return infoForId(id) != null;
     }
 
-    void setCurrentItemInternal(T id, boolean smoothScroll, boolean always, int velocity) {
+    void setCurrentItemInternal(T id, boolean smoothScroll, boolean always, int velocity,
+            boolean teleport) {
         if (id == null || adapter == null || !adapter.hasAtLeastOneItem()) {
             setScrollingCacheEnabled(false);
             return;
         }
-        if (!always && id.equals(curItemId) && items.size() != 0) {
+        if (!always && id.equals(curItemId) && window.size() != 0) {
             setScrollingCacheEnabled(false);
             return;
         }
-        final int pageLimit = offscreenPageLimit;
+        if (smoothScroll && teleport && !idWithinPageLimit(id) && window.size() != 0
+                && getWidth() > 0) {
+            teleportTo(id, velocity);
+            return;
+        }
         if (!idWithinPageLimit(id)) {
             // We are doing a jump by more than one page.  To avoid
             // glitches, we want to keep all current pages in the view
             // until the scroll ends.
-            for (int i = 0; i< items.size(); i++) {
-                items.get(i).scrolling = true;
+            for (int i = 0; i< window.size(); i++) {
+                window.get(i).scrolling = true;
             }
         }
         final boolean dispatchSelected = id.equals(curItemId);
@@ -255,8 +612,8 @@ public class StreamViewPager<T> extends ViewGroup {
         int destX = 0;
         if (curInfo != null) {
             final int width = getWidth();
-            destX = (int) (width * Math.max(firstOffset,
-                    Math.min(curInfo.offset, lastOffset)));
+            destX = (int) (width * Math.max(window.firstOffset,
+                    Math.min(curInfo.offset, window.lastOffset)));
         }
         if (smoothScroll) {
             smoothScrollTo(destX, 0, velocity);
@@ -268,7 +625,226 @@ public class StreamViewPager<T> extends ViewGroup {
                 pageChangeListener.onPageSelected(id);
             }
             completeScroll();
-            scrollTo(destX, 0);
+            pagerScrollTo(destX, 0);
+        }
+    }
+
+    /**
+     * Smoothly scroll to a page outside the window by moving the current page next to the
+     * target and animating about one page into it. The pages in between are never created,
+     * and the old window is released when the scroll completes.
+     */
+    private void teleportTo(T id, int velocity) {
+        finishTeleport();
+        final int width = getWidth();
+        final float marginOffset = (float) pageMargin / width;
+        final boolean forward = window.relativePosition(curItemId, id) != PageWindow.IdPosition.AFTER;
+        // Keep the page on screen as a ghost and drop the rest of the window
+        final ItemInfo<T> ghost = infoForCurrentScrollPosition();
+        final float scrollIntoGhost = pagerScrollX() - ghost.offset * width;
+        for (int i = window.size() - 1; i >= 0; i--) {
+            final ItemInfo<T> ii = window.removeItem(i);
+            if (ii != ghost) {
+                destroyItem(ii);
+            }
+        }
+        teleportGhost = ghost;
+        travelForward = forward;
+        populatePending = false;
+        populate(id);
+        final ItemInfo<T> curInfo = infoForId(id);
+        if (curInfo == null) {
+            finishTeleport();
+            return;
+        }
+        ghost.offset = forward ? curInfo.offset - ghost.widthFactor - marginOffset
+                : curInfo.offset + curInfo.widthFactor + marginOffset;
+        pagerScrollTo((int) (ghost.offset * width + scrollIntoGhost), getScrollY());
+        requestLayout();
+        final int destX = (int) (width * Math.max(window.firstOffset,
+                Math.min(curInfo.offset, window.lastOffset)));
+        smoothScrollTo(destX, 0, velocity);
+    }
+
+    private void finishTeleport() {
+        if (teleportGhost != null) {
+            final ItemInfo<T> ghost = teleportGhost;
+            teleportGhost = null;
+            destroyItem(ghost);
+            invalidate();
+        }
+    }
+
+    /**
+     * Enable or disable teleport jumps. When enabled, a smooth scroll to a page outside the
+     * offscreen window animates about one page into the target instead of across the whole
+     * distance, and doesn't create the pages in between. Disabled by default, since the pages
+     * in between are never shown and page scroll callbacks only report the short scroll.
+     *
+     * @param enabled True to teleport to distant pages
+     */
+    public void setTeleportEnabled(boolean enabled) {
+        teleportEnabled = enabled;
+    }
+
+    public boolean isTeleportEnabled() {
+        return teleportEnabled;
+    }
+
+    /**
+     * Enable or disable incremental populate. When enabled, the window is filled over several
+     * frames after a scroll settles: the current page first, then its neighbors in order of
+     * distance, one page per frame. Disabled by default, since the offscreen pages aren't all
+     * there for a few frames after each settle.
+     *
+     * @param enabled True to fill the window incrementally
+     */
+    public void setIncrementalPopulateEnabled(boolean enabled) {
+        incrementalPopulateEnabled = enabled;
+        if (!enabled && fillRadius >= 0) {
+            cancelIncrementalFill();
+            populate();
+        }
+    }
+
+    public boolean isIncrementalPopulateEnabled() {
+        return incrementalPopulateEnabled;
+    }
+
+    /**
+     * Enable or disable momentum flings. When enabled, a fling travels as far as OverScroller
+     * physics would carry it and lands on the nearest page boundary, instead of moving one page.
+     * A landing page outside the window is always reached with a teleport jump, whether or not
+     * {@link #setTeleportEnabled(boolean)} is on, so the pages the fling passes are never created.
+     * Disabled by default.
+     *
+     * @param enabled True to fling across multiple pages
+     */
+    public void setMomentumFlingEnabled(boolean enabled) {
+        momentumFlingEnabled = enabled;
+    }
+
+    public boolean isMomentumFlingEnabled() {
+        return momentumFlingEnabled;
+    }
+
+    /**
+     * Enable or disable scrolling layers. When enabled, the pages nearest the viewport are given
+     * hardware layers while the pager is dragged or settling, so they're composited instead of
+     * redrawn as they slide, and go back to their own layer type when it's idle. Adapters can
+     * opt pages out with {@link StreamViewAdapter#useScrollingLayer(Object)}. Disabled by default.
+     *
+     * @param enabled True to draw scrolling pages from hardware layers
+     */
+    public void setScrollingLayersEnabled(boolean enabled) {
+        scrollingLayersEnabled = enabled;
+        if (!enabled) {
+            demoteScrollingLayers();
+        } else if (scrollingCacheEnabled) {
+            promoteScrollingLayers();
+        }
+    }
+
+    public boolean isScrollingLayersEnabled() {
+        return scrollingLayersEnabled;
+    }
+
+    /**
+     * Set the most pages that can have scrolling layers at once. Each layer holds about a full
+     * page of pixels, so this caps the memory they use. Defaults to 3, the current page and a
+     * neighbor on each side.
+     *
+     * @param maxLayers Most pages to layer while scrolling
+     */
+    public void setMaxScrollingLayers(int maxLayers) {
+        maxScrollingLayers = Math.max(maxLayers, 0);
+    }
+
+    public int getMaxScrollingLayers() {
+        return maxScrollingLayers;
+    }
+
+    /**
+     * Enable or disable translation scroll mode. When enabled, drags and settles move the pages
+     * by setting their translationX instead of scrolling the pager. With hardware acceleration
+     * that's a display list property update, so page content isn't redrawn every frame.
+     * getScrollX stays 0 in this mode, use {@link #getPageScrollX()} instead. Disabled by default.
+     *
+     * @param enabled True to scroll by translating the pages
+     */
+    public void setTranslationScrollEnabled(boolean enabled) {
+        if (enabled == translationScrollEnabled) {
+            return;
+        }
+        final int x = pagerScrollX();
+        final int y = getScrollY();
+        translationScrollEnabled = enabled;
+        if (enabled) {
+            translationScrollX = x;
+            scrollTo(0, y);
+        } else {
+            translationScrollX = 0;
+            scrollTo(x, y);
+        }
+        applyTranslationScroll();
+        invalidate();
+        if (!scroller.isFinished()) {
+            postScrollStep();
+        }
+    }
+
+    public boolean isTranslationScrollEnabled() {
+        return translationScrollEnabled;
+    }
+
+    /**
+     * Returns the horizontal scroll position of the pages. This is getScrollX, or the virtual
+     * scroll position in translation scroll mode.
+     */
+    public int getPageScrollX() {
+        return pagerScrollX();
+    }
+
+    private int pagerScrollX() {
+        return translationScrollEnabled ? translationScrollX : getScrollX();
+    }
+
+    private void pagerScrollTo(int x, int y) {
+        if (!translationScrollEnabled) {
+            scrollTo(x, y);
+        } else {
+            if (y != getScrollY()) {
+                scrollTo(0, y);
+            }
+            if (x != translationScrollX) {
+                translationScrollX = x;
+                applyTranslationScroll();
+                if (pageMargin > 0 && marginDrawable != null) {
+                    // The margins are drawn by the pager itself
+                    invalidate();
+                }
+            }
+        }
+        if (updateVisiblePages() && translationScrollEnabled) {
+            // Translating the pages doesn't draw the pager again, so the pages it culled
+            // would stay blank as they slide in
+            invalidate();
+        }
+    }
+
+    private void applyTranslationScroll() {
+        for (int i = 0; i < getChildCount(); i++) {
+            ViewCompat.setTranslationX(getChildAt(i), -translationScrollX);
+        }
+    }
+
+    // Run the next frame of a settle
+    private void postScrollStep() {
+        if (translationScrollEnabled) {
+            removeCallbacks(settleStep);
+            ViewCompat.postOnAnimation(this, settleStep);
+        } else {
+            ViewCompat.postInvalidateOnAnimation(this);
         }
     }
 
@@ -276,7 +852,156 @@ public class StreamViewPager<T> extends ViewGroup {
         this.pageChangeListener = listener;
     }
 
-    /** Returns the number of pages that will be retained to either side of the
+    /**
+     * Set the tracer that receives sections around populate, page instantiation and destruction,
+     * measure, layout and settle work. Defaults to a {@link SystemPagerTracer}.
+     *
+     * @param tracer Tracer to use, or null to disable tracing
+     */
+    public void setTracer(PagerTracer tracer) {
+        this.tracer = tracer;
+    }
+
+    /**
+     * Set a listener that receives the performance metrics of each swipe or programmatic scroll.
+     * Metrics are only collected while a listener is set.
+     *
+     * @param listener Listener to receive metrics, or null to stop collecting them
+     */
+    public void setOnPagerMetricsListener(OnPagerMetricsListener listener) {
+        this.metricsListener = listener;
+    }
+
+    /**
+     * Set a listener that will be invoked whenever a page comes into or goes out of view.
+     *
+     * @param listener Listener to set, or null to remove it
+     */
+    public void setOnPageVisibilityChangeListener(OnPageVisibilityChangeListener<T> listener) {
+        this.visibilityListener = listener;
+    }
+
+    /** Returns true if some of the page with the given id is in view. */
+    public boolean isPageVisible(T id) {
+        final ItemInfo<T> ii = infoForId(id);
+        return ii != null && ii.visible;
+    }
+
+    /**
+     * Add the ids of the pages that are at least partly in view to a list, in stream order.
+     *
+     * @param out List to add the ids to
+     */
+    public void getVisiblePages(List<T> out) {
+        for (int i = 0; i < window.size(); i++) {
+            final ItemInfo<T> ii = window.get(i);
+            if (ii.visible) {
+                out.add(ii.id);
+            }
+        }
+    }
+
+    // Find the pages that moved into or out of the viewport and let the listener know.
+    // Returns true if any did.
+    private boolean updateVisiblePages() {
+        final int width = getWidth();
+        if (width == 0) {
+            return false;
+        }
+        boolean changed = false;
+        final float scrollOffset = (float) pagerScrollX() / width;
+        for (int i = 0; i < window.size(); i++) {
+            final ItemInfo<T> ii = window.get(i);
+            final boolean visible = ii.offset < scrollOffset + 1
+                    && ii.offset + ii.widthFactor > scrollOffset;
+            if (visible != ii.visible) {
+                ii.visible = visible;
+                changed = true;
+                if (visibilityListener != null) {
+                    visibilityListener.onPageVisibilityChanged(ii.id, visible);
+                }
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Enable or disable prefetching. When enabled, the page past the edge of the window in the
+     * direction of travel is instantiated, measured and laid out in idle time between frames,
+     * so it's ready before the next swipe needs it. Disabled by default, since it instantiates
+     * pages past the offscreen page limit that adapters may not expect.
+     *
+     * @param enabled True to prefetch pages
+     */
+    public void setPrefetchEnabled(boolean enabled) {
+        prefetchEnabled = enabled;
+        if (enabled) {
+            prefetcher.schedule();
+        } else {
+            prefetcher.cancel();
+        }
+    }
+
+    public boolean isPrefetchEnabled() {
+        return prefetchEnabled;
+    }
+
+    /** Returns the metrics of the last completed swipe, or null if none were collected. */
+    public PagerMetrics getLastSwipeMetrics() {
+        return lastSwipeMetrics;
+    }
+
+    private void updateMetricsForScrollState(int newState) {
+        if (newState == SCROLL_STATE_IDLE) {
+            if (!completingScroll) {
+                finishMetricsWhenPopulated();
+            }
+            return;
+        }
+        if (!metrics.recording && metricsListener != null) {
+            metrics.begin();
+        }
+        if (newState == SCROLL_STATE_SETTLING && metrics.recording) {
+            metrics.release(System.nanoTime());
+        }
+    }
+
+    // The populate after a settle may be left for the next frame, count it in the swipe
+    private void finishMetricsWhenPopulated() {
+        if (metrics.recording && populateScheduler.isDirty()) {
+            finishMetricsAfterPopulate = true;
+        } else {
+            finishMetrics();
+        }
+    }
+
+    private void finishMetrics() {
+        if (metrics.recording) {
+            lastSwipeMetrics = metrics.finish(System.nanoTime());
+            if (metricsListener != null) {
+                metricsListener.onSwipeMetrics(lastSwipeMetrics);
+            }
+        }
+    }
+
+    // Current time if metrics are being recorded, so timing costs nothing otherwise
+    private long metricsTime() {
+        return metrics.recording ? System.nanoTime() : 0;
+    }
+
+    private void beginSection(int section) {
+        if (tracer != null) {
+            tracer.beginSection(section);
+        }
+    }
+
+    private void endSection(int section) {
+        if (tracer != null) {
+            tracer.endSection(section);
+        }
+    }
+
+    /** Returns the number of pages that will be retained ahead of the
      * current page in the view hierarchy in an idle state. Defaults to 1.
      */
 
@@ -284,6 +1009,13 @@ public class StreamViewPager<T> extends ViewGroup {
         return offscreenPageLimit;
     }
 
+    /** Returns the number of pages that will be retained behind the
+     * current page in the view hierarchy in an idle state. Defaults to 1.
+     */
+    public int getOffscreenPageLimitBehind() {
+        return offscreenPagesBehind;
+    }
+
     /**
      * Set the number of pages that should be retained to either side of the
      * current page in the view hierarchy in an idle state. Pages beyond this
@@ -301,17 +1033,64 @@ public class StreamViewPager<T> extends ViewGroup {
      *
      * @param limit How many pages will be kept offscreen in an idle state.
      */
-    // TODO -- update for new zeitgeist
     public void setOffscreenPageLimit(int limit) {
-        if (limit < DEFAULT_OFFSCREEN_PAGES) {
-            limit = DEFAULT_OFFSCREEN_PAGES;
-        }
-        if (limit != offscreenPageLimit) {
-            offscreenPageLimit = limit;
+        setOffscreenPageLimit(limit, limit);
+    }
+
+    /**
+     * Set the number of pages that should be retained before and after the current page in
+     * an idle state. In a stream that is mostly read forward, pages behind the user are rarely
+     * revisited and can be given a lower limit than pages ahead.
+     *
+     * <p>The page adjacent to the current page is always kept so it can be dragged into view,
+     * so both limits are at least 1.</p>
+     *
+     * @param behind How many pages will be kept offscreen before the current page
+     * @param ahead How many pages will be kept offscreen after the current page
+     */
+    public void setOffscreenPageLimit(int behind, int ahead) {
+        behind = Math.max(behind, DEFAULT_OFFSCREEN_PAGES);
+        ahead = Math.max(ahead, DEFAULT_OFFSCREEN_PAGES);
+        if (adaptiveMaxAhead != 0 || behind != offscreenPagesBehind || ahead != offscreenPageLimit) {
+            adaptiveMaxAhead = 0;
+            offscreenPagesBehind = behind;
+            offscreenPageLimit = ahead;
+            updateCacheCapacity();
             populate();
         }
     }
 
+    /**
+     * Let the offscreen window follow the direction of travel. Each swipe in the same direction
+     * keeps one more page ahead in that direction, up to maxAhead, while a single page is kept
+     * behind. Changing direction starts over. Call {@link #setOffscreenPageLimit(int, int)}
+     * to go back to fixed limits.
+     *
+     * @param maxAhead Most pages that will be kept offscreen in the direction of travel
+     */
+    public void setAdaptiveOffscreenPageLimit(int maxAhead) {
+        adaptiveMaxAhead = Math.max(maxAhead, DEFAULT_OFFSCREEN_PAGES);
+        offscreenPagesBehind = DEFAULT_OFFSCREEN_PAGES;
+        offscreenPageLimit = Math.min(adaptiveMaxAhead, DEFAULT_OFFSCREEN_PAGES + swipeStreak);
+        updateCacheCapacity();
+        populate();
+    }
+
+    private void updateCacheCapacity() {
+        final int limit = Math.max(offscreenPagesBehind, Math.max(offscreenPageLimit, adaptiveMaxAhead));
+        neighborCache.setCapacity(neighborCacheCapacity(limit));
+        pageWidths.setCapacity(neighborCacheCapacity(limit));
+    }
+
+    // Track swipe streaks for adaptive limits
+    private void onSwipe(boolean forward) {
+        swipeStreak = forward == lastSwipeForward ? swipeStreak + 1 : 1;
+        lastSwipeForward = forward;
+        if (adaptiveMaxAhead != 0) {
+            offscreenPageLimit = Math.min(adaptiveMaxAhead, DEFAULT_OFFSCREEN_PAGES + swipeStreak);
+        }
+    }
+
     /** Set the margin between pages.
      *
      * @param marginPixels Distance between adjacent pages in pixels
@@ -321,6 +1100,7 @@ public class StreamViewPager<T> extends ViewGroup {
         pageMargin = marginPixels;
         final int width = getWidth();
         recomputeScrollPosition(width, width, marginPixels, oldMargin);
+        populate();
         requestLayout();
     }
 
@@ -380,7 +1160,7 @@ public class StreamViewPager<T> extends ViewGroup {
             setScrollingCacheEnabled(false);
             return;
         }
-        int sx = getScrollX();
+        int sx = pagerScrollX();
         int sy = getScrollY();
         int dx = x - sx;
         int dy = y - sy;
@@ -402,164 +1182,229 @@ public class StreamViewPager<T> extends ViewGroup {
         if (velocity > 0) {
             duration = 4 * Math.round(1000 * Math.abs(distance / velocity));
         } else {
-            final float pageWidth = width * adapter.getPageWidth(curItemId);
+            final float pageWidth = width * pageWidth(curItemId);
             final float pageDelta = (float) Math.abs(dx) / (pageWidth + pageMargin);
             duration = (int) ((pageDelta + 1) * 100);
         }
         duration = Math.min(duration, MAX_SETTLE_DURATION);
         scroller.startScroll(sx, sy, dx, dy, duration);
-        ViewCompat.postInvalidateOnAnimation(this);
+        postScrollStep();
+    }
+
+    // Enough links for the window and the offset walks around it
+    private static int neighborCacheCapacity(int pageLimit) {
+        return Math.max(32, 8 * (pageLimit + 1));
+    }
+
+    /** Returns the id after the given id, using cached links if the adapter allows it. */
+    T idAfter(T id) {
+        return adapter.cacheIdNavigation() ? neighborCache.next(adapter, id) : adapter.nextId(id);
+    }
+
+    /** Returns the id before the given id, using cached links if the adapter allows it. */
+    T idBefore(T id) {
+        return adapter.cacheIdNavigation() ? neighborCache.prev(adapter, id) : adapter.prevId(id);
+    }
+
+    /** Returns the width factor of the given page, only asking the adapter once between invalidations. */
+    float pageWidth(T id) {
+        return pageWidths.widthOf(adapter, id);
+    }
+
+    private void updateWidthFactor(ItemInfo<T> ii) {
+        ii.widthFactor = pageWidth(ii.id);
+        for (int i = 0; i < getChildCount(); i++) {
+            final View child = getChildAt(i);
+            if (infoForChild(child) == ii) {
+                // 0 makes populate pick up the new width
+                ((StreamPagerLayoutParams) child.getLayoutParams()).widthFactor = 0.f;
+            }
+        }
+    }
+
+    boolean hasIdAfter(T id) {
+        return adapter.cacheIdNavigation() ? idAfter(id) != null : adapter.hasNext(id);
+    }
+
+    boolean hasIdBefore(T id) {
+        return adapter.cacheIdNavigation() ? idBefore(id) != null : adapter.hasPrev(id);
     }
 
-    ItemInfo<T> addNewItem(T id, int index) {
-        ItemInfo<T> ii = new ItemInfo<>();
-        ii.id = id;
-        ii.object = adapter.instantiateItem(this, id);
-        ii.widthFactor = adapter.getPageWidth(id);
-        if (index < 0 || index >= items.size()) {
-            items.add(ii);
-        } else {
-            items.add(index, ii);
-        }
-        return ii;
-    }
-    private IdPosition relativePosition(T id1, T id2) {
-        int mark1 = -1, mark2 = -1;
-        for(int i=0; i<items.size(); i+=1) {
-            ItemInfo<T> item = items.get(i);
-            if(mark1 == -1 && id1.equals(item.id)) {
-                mark1 = i;
-            } else if(mark2 == -1 && id2.equals(item.id)) {
-                mark2 = i;
-            } else if(mark1 == -1 && mark2 == -1) {
-                break;
+    // The view type of a page, or IGNORE_ITEM_VIEW_TYPE if the adapter doesn't recycle views
+    private static <T> int viewTypeOf(StreamViewAdapter<T> adapter, T id) {
+        return adapter instanceof RecyclingAdapter
+                ? ((RecyclingAdapter<T>) adapter).getItemViewType(id)
+                : StreamViewAdapter.IGNORE_ITEM_VIEW_TYPE;
+    }
+
+    void instantiateItem(ItemInfo<T> ii) {
+        final T id = ii.id;
+        ii.viewType = viewTypeOf(adapter, id);
+        final long startTime = metricsTime();
+        beginSection(PagerTracer.SECTION_INSTANTIATE);
+        try {
+            if (ii.viewType == StreamViewAdapter.IGNORE_ITEM_VIEW_TYPE) {
+                ii.object = adapter.instantiateItem(this, id);
+            } else {
+                final RecyclingAdapter<T> recycler = (RecyclingAdapter<T>) adapter;
+                View view = recycleBin.get(ii.viewType);
+                if (view == null) {
+                    view = recycler.createView(this, ii.viewType);
+                }
+                recycler.bindView(view, id);
+                addView(view);
+                ii.object = view;
             }
+        } finally {
+            endSection(PagerTracer.SECTION_INSTANTIATE);
         }
-        if(mark1 == -1 || mark2 == -1 || mark1 == mark2) {
-            return IdPosition.EQUAL;
-        } else if(mark1 < mark2) {
-            return IdPosition.BEFORE;
-        } else {
-            return IdPosition.AFTER;
+        if (metrics.recording) {
+            metrics.instantiated(System.nanoTime() - startTime);
+        }
+        if (ii.object instanceof View && adapter.isViewFromObject((View) ii.object, ii.object)) {
+            ii.view = ii.object;
+            itemsByView.put((View) ii.object, ii);
         }
     }
 
+    void destroyItem(ItemInfo<T> ii) {
+        if (ii.view != null) {
+            itemsByView.remove(ii.view);
+        }
+        if (ii.visible) {
+            ii.visible = false;
+            if (visibilityListener != null) {
+                visibilityListener.onPageVisibilityChanged(ii.id, false);
+            }
+        }
+        beginSection(PagerTracer.SECTION_DESTROY);
+        try {
+            if (ii.viewType == StreamViewAdapter.IGNORE_ITEM_VIEW_TYPE) {
+                adapter.destroyItem(this, ii.id, ii.object);
+            } else {
+                final View view = (View) ii.object;
+                if (inLayout) {
+                    removeViewInLayout(view);
+                } else {
+                    removeView(view);
+                }
+                ((RecyclingAdapter<T>) adapter).onViewRecycled(view, ii.id);
+                // Requery the width when the view is rebound
+                ((StreamPagerLayoutParams) view.getLayoutParams()).widthFactor = 0.f;
+                recycleBin.put(ii.viewType, view);
+            }
+        } finally {
+            endSection(PagerTracer.SECTION_DESTROY);
+        }
+        if (metrics.recording) {
+            metrics.destroyed();
+        }
+    }
+    /**
+     * Mark the window for a populate. Requests are coalesced into one pass at the start of the
+     * next frame, or the next measure or layout, whichever comes first. If a pass already ran
+     * in this frame, the posted pass waits for the next one, but measure and layout don't.
+     */
     void populate() {
-        populate(curItemId);
+        populateScheduler.markDirty();
     }
+
+    /** Run a pending populate now. Call this before reading the window after a mutation. */
+    public void flushPopulate() {
+        populateScheduler.flush();
+    }
+
+    /** Populate right away, moving the current page to the given id. */
     void populate(T newCurrentId) {
         if(curItemId == null) {
             return;
         }
         ItemInfo<T> oldCurInfo = null;
-        IdPosition oldPos = IdPosition.EQUAL;
+        PageWindow.IdPosition oldPos = PageWindow.IdPosition.EQUAL;
         if (!curItemId.equals(newCurrentId)) {
             oldCurInfo = infoForId(curItemId);
             if(oldCurInfo != null) {
-                oldPos = relativePosition(curItemId, newCurrentId);
+                oldPos = window.relativePosition(curItemId, newCurrentId);
+                if (oldPos != PageWindow.IdPosition.EQUAL) {
+                    travelForward = oldPos == PageWindow.IdPosition.BEFORE;
+                    onSwipe(travelForward);
+                }
             }
             curItemId = newCurrentId;
+            // Start the fill over from the new current page
+            if (fillRadius > 0) {
+                fillRadius = 0;
+            }
         }
-        if (adapter == null) {
-            return;
+        if (populateNow(oldCurInfo, oldPos)) {
+            populateScheduler.populated();
+        } else {
+            populateScheduler.markDirty();
+        }
+    }
+
+    // Fill the window around the current page, or return false if it can't be filled yet
+    private boolean populateNow(ItemInfo<T> oldCurInfo, PageWindow.IdPosition oldPos) {
+        if (adapter == null || curItemId == null) {
+            return false;
         }
         // Bail now if waiting to populate.  This is to hold off on creating views from when
         // the user releases their finger to fling to a new position until we have
         // finished the scroll to that position, avoiding glitches from happening at that point.
         if (populatePending) {
-            if (DEBUG) Log.i(TAG, "populate is pending, skipping for now...");
-            return;
+            return false;
         }
         // Don't populate until we are attached to a window. This avoids populating
         // before restoring view hierarchy state and conflicting with what is restored.
         if (getWindowToken() == null) {
-            return;
+            return false;
         }
-        // Locate the currently focused item or add it if needed.
-        int curIndex = -1;
-        ItemInfo<T> curItem = null;
-        for (curIndex = 0; curIndex < items.size(); curIndex++) {
-            final ItemInfo<T> ii = items.get(curIndex);
-            if (this.curItemId.equals(ii.id)) {
-                curItem = ii;
-                break;
-            }
+        populateAround(curItemId, oldCurInfo, oldPos);
+        if (finishMetricsAfterPopulate) {
+            finishMetricsAfterPopulate = false;
+            finishMetrics();
         }
-        if (curItem == null && adapter.hasAtLeastOneItem()) {
-            curItem = addNewItem(this.curItemId, curIndex);
-        }
-        // Fill 3x the available width or up to the number of offscreen
-        // pages requested to either side, whichever is larger.
-        // If we have no current item we have no work to do.
-        if (curItem != null) {
-            float extraWidthLeft = 0.f;
-            int itemIndex = curIndex - 1;
-            ItemInfo ii = itemIndex >= 0 ? items.get(itemIndex) : null;
-            final float leftWidthNeeded = 2.f - curItem.widthFactor;
-            T idIter = adapter.prevId(this.curItemId);
-            int iterCount = 0;
-            while(idIter != null) {
-                if (extraWidthLeft >= leftWidthNeeded && (iterCount >= offscreenPageLimit)) {
-                    if (ii == null) {
-                        break;
-                    }
-                    // Destroy any items that need destroyin' (too far off screen due to scroll)
-                    if (idIter.equals(ii.id) && !ii.scrolling) {
-                        items.remove(itemIndex);
-                        adapter.destroyItem(this, idIter, ii.object);
-                        itemIndex--;
-                        curIndex--;
-                        ii = itemIndex >= 0 ? items.get(itemIndex) : null;
-                    }
-                } else if (ii != null && idIter.equals(ii.id)) {
-                    extraWidthLeft += ii.widthFactor;
-                    itemIndex--;
-                    ii = itemIndex >= 0 ? items.get(itemIndex) : null;
-                } else {
-                    ii = addNewItem(idIter, itemIndex + 1);
-                    extraWidthLeft += ii.widthFactor;
-                    curIndex++;
-                    ii = itemIndex >= 0 ? items.get(itemIndex) : null;
-                }
-                idIter = adapter.prevId(idIter);
-                iterCount += 1;
-            }
-            float extraWidthRight = curItem.widthFactor;
-            itemIndex = curIndex + 1;
-            if (extraWidthRight < 2.f) {
-                ii = itemIndex < items.size() ? items.get(itemIndex) : null;
-                idIter = adapter.nextId(this.curItemId);
-                iterCount = 0;
-                while(idIter != null) {
-                    if (extraWidthRight >= 2.f && (iterCount >= offscreenPageLimit)) {
-                        if (ii == null) {
-                            break;
-                        }
-                        if (idIter.equals(ii.id) && !ii.scrolling) {
-                            items.remove(itemIndex);
-                            adapter.destroyItem(this, idIter, ii.object);
-                            ii = itemIndex < items.size() ? items.get(itemIndex) : null;
-                        }
-                    } else if (ii != null && idIter.equals(ii.id)) {
-                        extraWidthRight += ii.widthFactor;
-                        itemIndex++;
-                        ii = itemIndex < items.size() ? items.get(itemIndex) : null;
-                    } else {
-                        ii = addNewItem(idIter, itemIndex);
-                        itemIndex++;
-                        extraWidthRight += ii.widthFactor;
-                        ii = itemIndex < items.size() ? items.get(itemIndex) : null;
-                    }
-                    idIter = adapter.nextId(idIter);
-                    iterCount += 1;
-                }
-            }
-            calculatePageOffsets(curItem, curIndex, oldCurInfo, oldPos);
+        return true;
+    }
+
+    /**
+     * Fill the window around the given page. This is usually the current page, but during a
+     * drag it's the page under the finger, so the window moves along with the drag.
+     */
+    private void populateAround(T centerId, ItemInfo<T> oldCurInfo, PageWindow.IdPosition oldPos) {
+        final long startTime = metricsTime();
+        beginSection(PagerTracer.SECTION_POPULATE);
+        try {
+            fillWindow(centerId, oldCurInfo, oldPos);
+        } finally {
+            endSection(PagerTracer.SECTION_POPULATE);
+        }
+        if (metrics.recording) {
+            metrics.populated(System.nanoTime() - startTime);
         }
-        if (DEBUG) {
-            Log.i(TAG, "Current page list:");
-            for (int i = 0; i< items.size(); i++) {
-                Log.i(TAG, "#" + i + ": page " + items.get(i).id);
+    }
+
+    private void fillWindow(T centerId, ItemInfo<T> oldCurInfo, PageWindow.IdPosition oldPos) {
+        final int width = getWidth();
+        final float marginOffset = width > 0 ? (float) pageMargin / width : 0;
+        // In adaptive mode the pages ahead follow the last swipe
+        final boolean aheadIsBefore = adaptiveMaxAhead != 0 && !lastSwipeForward;
+        final int limitBefore = aheadIsBefore ? offscreenPageLimit : offscreenPagesBehind;
+        final int limitAfter = aheadIsBefore ? offscreenPagesBehind : offscreenPageLimit;
+        final ItemInfo<T> curItem;
+        if (fillRadius < 0) {
+            curItem = window.populate(centerId, oldCurInfo, oldPos, limitBefore, limitAfter, marginOffset);
+        } else {
+            // Pages outside the limits are only dropped once the fill reaches them
+            final boolean lastStep = fillRadius >= Math.max(limitBefore, limitAfter);
+            curItem = window.populate(centerId, oldCurInfo, oldPos, Math.min(fillRadius, limitBefore),
+                    Math.min(fillRadius, limitAfter), marginOffset, 1, lastStep);
+            if (window.filled) {
+                fillRadius = lastStep ? -1 : fillRadius + 1;
+            }
+            removeCallbacks(fillStep);
+            if (fillRadius >= 0) {
+                ViewCompat.postOnAnimation(this, fillStep);
             }
         }
         // Check width measurement of current pages. Update StreamPagerLayoutParams as needed.
@@ -575,14 +1420,15 @@ public class StreamViewPager<T> extends ViewGroup {
                 }
             }
         }
-        if (hasFocus()) {
+        // During a drag the center is the page under the finger, focus moves once the scroll completes
+        if (hasFocus() && centerId.equals(curItemId)) {
             View currentFocused = findFocus();
             ItemInfo ii = currentFocused != null ? infoForAnyChild(currentFocused) : null;
-            if (ii == null || !ii.id.equals(this.curItemId)) {
+            if (ii == null || ii != curItem) {
                 for (int i=0; i<getChildCount(); i++) {
                     View child = getChildAt(i);
                     ii = infoForChild(child);
-                    if (ii != null && ii.id.equals(this.curItemId)) {
+                    if (ii != null && ii == curItem) {
                         if (child.requestFocus(FOCUS_FORWARD)) {
                             break;
                         }
@@ -590,98 +1436,9 @@ public class StreamViewPager<T> extends ViewGroup {
                 }
             }
         }
-    }
-    private void calculatePageOffsets(ItemInfo<T> curItem, int curIndex, ItemInfo<T> oldCurInfo, IdPosition oldPos) {
-        final int width = getWidth();
-        final float marginOffset = width > 0 ? (float) pageMargin / width : 0;
-        // Fix up offsets for later layout.
-        if (oldCurInfo != null) {
-            final T oldCurId = oldCurInfo.id;
-            // Base offsets off of oldCurInfo.
-            if (oldPos == IdPosition.BEFORE) {
-                int itemIndex = 0;
-                ItemInfo ii;
-                float offset = oldCurInfo.offset + oldCurInfo.widthFactor + marginOffset;
-
-                T id = adapter.nextId(oldCurId);
-                while(id != null && itemIndex < items.size()) {
-
-                    ii = items.get(itemIndex);
-                    while (!id.equals(ii.id) && itemIndex < items.size() - 1) {
-                        itemIndex++;
-                        ii = items.get(itemIndex);
-                    }
-                    while (id != null && !id.equals(ii.id)) {
-                        // We don't have an item populated for this,
-                        // ask the adapter for an offset.
-                        offset += adapter.getPageWidth(id) + marginOffset;
-                        id = adapter.nextId(id);
-                    }
-                    ii.offset = offset;
-                    offset += ii.widthFactor + marginOffset;
-
-                    if(id == null || id.equals(curItem.id)) break;
-                    id = adapter.nextId(id);
-                }
-            } else if (oldPos == IdPosition.AFTER) {
-                int itemIndex = items.size() - 1;
-                ItemInfo ii;
-                float offset = oldCurInfo.offset;
-                T id = adapter.prevId(oldCurId);
-                while(id != null && itemIndex >= 0) {
-                    ii = items.get(itemIndex);
-                    while (!id.equals(ii.id) && itemIndex > 0) {
-                        itemIndex--;
-                        ii = items.get(itemIndex);
-                    }
-                    while (id != null && !id.equals(ii.id)) {
-                        // We don't have an item populated for this,
-                        // ask the adapter for an offset.
-                        offset -= adapter.getPageWidth(id) + marginOffset;
-                        id = adapter.prevId(id);
-                    }
-                    offset -= ii.widthFactor + marginOffset;
-                    ii.offset = offset;
-
-                    if(id == null || id.equals(curItem.id)) break;
-                    id = adapter.prevId(id);
-                }
-            }
-        }
-        // Base all offsets off of curItemId.
-        final int itemCount = items.size();
-        float offset = curItem.offset;
-        T prevId = adapter.prevId(curItem.id);
-        T nextId = adapter.nextId(curItem.id);
-        firstOffset = (prevId == null) ? curItem.offset : -Float.MAX_VALUE;
-        lastOffset = (nextId == null) ?
-                curItem.offset + curItem.widthFactor - 1 : Float.MAX_VALUE;
-        // Previous pages
-        for (int i = curIndex - 1; i >= 0 && prevId != null; i--, prevId=adapter.prevId(prevId)) {
-            final ItemInfo ii = items.get(i);
-            while (prevId != null && !prevId.equals(ii.id)) {
-
-                offset -= adapter.getPageWidth(prevId) + marginOffset;
-                prevId = adapter.prevId(prevId);
-            }
-            offset -= ii.widthFactor + marginOffset;
-            ii.offset = offset;
-            if (prevId == null) firstOffset = offset;
-        }
-        offset = curItem.offset + curItem.widthFactor + marginOffset;
-        // Next pages
-        for (int i = curIndex + 1; nextId != null && i < itemCount; i++, nextId =adapter.nextId(nextId)) {
-            final ItemInfo ii = items.get(i);
-            while (nextId != null && !nextId.equals(ii.id)) {
-
-                offset += adapter.getPageWidth(nextId) + marginOffset;
-                nextId = adapter.nextId(nextId);
-            }
-            if (nextId == null) {
-                lastOffset = offset + ii.widthFactor - 1;
-            }
-            ii.offset = offset;
-            offset += ii.widthFactor + marginOffset;
+        if (scrollingCacheEnabled) {
+            // Layer the pages this pass added near the viewport
+            promoteScrollingLayers();
         }
     }
 
@@ -691,24 +1448,37 @@ public class StreamViewPager<T> extends ViewGroup {
             params = generateLayoutParams(params);
         }
         final StreamPagerLayoutParams lp = (StreamPagerLayoutParams) params;
+        // A recycled view may have been rebound without requesting layout, always measure it
+        lp.lastWidthSpec = 0;
+        lp.lastHeightSpec = 0;
         if (inLayout) {
             lp.needsMeasure = true;
             addViewInLayout(child, index, params);
+        } else if (prefetching) {
+            // Measured and laid out by prefetchPage, the rest of the pager doesn't change
+            addViewInLayout(child, index, params, true);
         } else {
             super.addView(child, index, params);
         }
-        if (USE_CACHE) {
-            if (child.getVisibility() != GONE) {
-                child.setDrawingCacheEnabled(scrollingCacheEnabled);
-            } else {
-                child.setDrawingCacheEnabled(false);
-            }
+        ViewCompat.setTranslationX(child, translationScrollEnabled ? -translationScrollX : 0);
+        if (lp.scrollingLayer) {
+            // A recycled view still layered from an earlier scroll
+            lp.scrollingLayer = false;
+            ViewCompat.setLayerType(child, ViewCompat.LAYER_TYPE_NONE, null);
         }
     }
 
     ItemInfo<T> infoForChild(View child) {
-        for (ItemInfo<T> ii : items) {
-            if (adapter.isViewFromObject(child, ii.object)) {
+        ItemInfo<T> info = itemsByView.get(child);
+        if (info != null) {
+            return info;
+        }
+        // Page objects that aren't the page view itself are matched once, then indexed
+        for (int i = 0; i < window.size(); i++) {
+            final ItemInfo<T> ii = window.get(i);
+            if (ii.view == null && adapter.isViewFromObject(child, ii.object)) {
+                ii.view = child;
+                itemsByView.put(child, ii);
                 return ii;
             }
         }
@@ -726,33 +1496,103 @@ public class StreamViewPager<T> extends ViewGroup {
         return infoForChild(child);
     }
     ItemInfo<T> infoForId(T id) {
-        if(id == null) {
+        if(adapter == null) {
             return null;
         }
-        for (ItemInfo<T> ii : items) {
-            if (id.equals(ii.id)) {
-                return ii;
+        return window.infoForId(id);
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        firstLayout = true;
+        // Populates are held off while detached
+        populate();
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1) {
+            final Display display = getDisplay();
+            final float refreshRate = display != null ? display.getRefreshRate() : 0;
+            if (refreshRate >= 10) {
+                metrics.frameBudgetNanos = (long) (1000000000 / refreshRate);
+                prefetcher.frameIntervalNanos = metrics.frameBudgetNanos;
             }
         }
-        return null;
     }
-    int indexForId(T id) {
-        if(id == null) {
-            return -1;
+
+    @Override
+    protected void onDetachedFromWindow() {
+        prefetcher.cancel();
+        cancelIncrementalFill();
+        removeCallbacks(settleStep);
+        super.onDetachedFromWindow();
+    }
+
+    private void cancelIncrementalFill() {
+        fillRadius = -1;
+        removeCallbacks(fillStep);
+    }
+
+    boolean isScrollIdle() {
+        return scrollState == SCROLL_STATE_IDLE;
+    }
+
+    private void schedulePrefetch() {
+        if (prefetchEnabled && hasPageToPrefetch()) {
+            prefetcher.schedule();
         }
-        for(int i=0;i<items.size();i+=1) {
-            ItemInfo<T> ii = items.get(i);
-            if (id.equals(ii.id)) {
-                return i;
-            }
+    }
+
+    boolean hasPageToPrefetch() {
+        if (adapter == null || window.size() == 0 || populatePending || fillRadius >= 0
+                || getWindowToken() == null) {
+            return false;
         }
-        return -1;
+        final ItemInfo<T> edge = travelForward ? window.get(window.size() - 1) : window.get(0);
+        return !edge.prefetched && (travelForward ? hasIdAfter(edge.id) : hasIdBefore(edge.id));
     }
 
-    @Override
-    protected void onAttachedToWindow() {
-        super.onAttachedToWindow();
-        firstLayout = true;
+    /**
+     * Instantiate, measure and lay out the page past the edge of the window in the direction of
+     * travel. Called by the prefetcher between frames.
+     *
+     * @return True if a page was prefetched
+     */
+    boolean prefetchPage() {
+        final int width = getWidth();
+        if (!prefetchEnabled || width == 0 || isLayoutRequested() || !hasPageToPrefetch()) {
+            return false;
+        }
+        prefetching = true;
+        final ItemInfo<T> ii;
+        try {
+            ii = window.prefetch(travelForward, (float) pageMargin / width);
+        } finally {
+            prefetching = false;
+        }
+        if (ii == null) {
+            return false;
+        }
+        if (speculating) {
+            speculativeKey = ii.key;
+        }
+        final int paddingLeft = getPaddingLeft();
+        final int paddingTop = getPaddingTop();
+        final int childWidthSize = width - paddingLeft - getPaddingRight();
+        final int childHeightSize = getHeight() - paddingTop - getPaddingBottom();
+        for (int i = 0; i < getChildCount(); i++) {
+            final View child = getChildAt(i);
+            if (child.getVisibility() != GONE && infoForChild(child) == ii) {
+                final StreamPagerLayoutParams lp = (StreamPagerLayoutParams) child.getLayoutParams();
+                lp.widthFactor = ii.widthFactor;
+                lp.needsMeasure = false;
+                measurePage(child, lp,
+                        MeasureSpec.makeMeasureSpec((int) (childWidthSize * lp.widthFactor), MeasureSpec.EXACTLY),
+                        MeasureSpec.makeMeasureSpec(childHeightSize, MeasureSpec.EXACTLY));
+                final int childLeft = paddingLeft + (int) (width * ii.offset);
+                child.layout(childLeft, paddingTop, childLeft + child.getMeasuredWidth(),
+                        paddingTop + child.getMeasuredHeight());
+            }
+        }
+        return true;
     }
 
     @Override
@@ -762,50 +1602,67 @@ public class StreamViewPager<T> extends ViewGroup {
         // our view.  We can't really know what it is since we will be
         // adding and removing different arbitrary views and do not
         // want the layout to change as this happens.
-        setMeasuredDimension(getDefaultSize(0, widthMeasureSpec),
-                getDefaultSize(0, heightMeasureSpec));
-        final int measuredWidth = getMeasuredWidth();
-        final int maxGutterSize = measuredWidth / 10;
-        gutterSize = Math.min(maxGutterSize, defaultGutterSize);
-        // Children are just made to fill our space.
-        int childWidthSize = measuredWidth - getPaddingLeft() - getPaddingRight();
-        int childHeightSize = getMeasuredHeight() - getPaddingTop() - getPaddingBottom();
-
-        int childWidthMeasureSpec = MeasureSpec.makeMeasureSpec(childWidthSize, MeasureSpec.EXACTLY);
-        int childHeightMeasureSpec = MeasureSpec.makeMeasureSpec(childHeightSize, MeasureSpec.EXACTLY);
-        // Make sure we have created all fragments that we need to have shown.
-        inLayout = true;
-        populate();
-        inLayout = false;
-        // Page views next.
-        int size = getChildCount();
-        for (int i = 0; i < size; ++i) {
-            final View child = getChildAt(i);
-            if (child.getVisibility() != GONE) {
-                if (DEBUG) Log.v(TAG, "Measuring #" + i + " " + child + " " + childWidthMeasureSpec);
-                final StreamPagerLayoutParams lp = (StreamPagerLayoutParams) child.getLayoutParams();
-                final int widthSpec = MeasureSpec.makeMeasureSpec(
-                        (int) (childWidthSize * lp.widthFactor), MeasureSpec.EXACTLY);
-                child.measure(widthSpec, childHeightMeasureSpec);
+        beginSection(PagerTracer.SECTION_MEASURE);
+        try {
+            setMeasuredDimension(getDefaultSize(0, widthMeasureSpec),
+                    getDefaultSize(0, heightMeasureSpec));
+            final int measuredWidth = getMeasuredWidth();
+            final int maxGutterSize = measuredWidth / 10;
+            gutterSize = Math.min(maxGutterSize, defaultGutterSize);
+            // Children are just made to fill our space.
+            int childWidthSize = measuredWidth - getPaddingLeft() - getPaddingRight();
+            int childHeightSize = getMeasuredHeight() - getPaddingTop() - getPaddingBottom();
+
+            int childWidthMeasureSpec = MeasureSpec.makeMeasureSpec(childWidthSize, MeasureSpec.EXACTLY);
+            int childHeightMeasureSpec = MeasureSpec.makeMeasureSpec(childHeightSize, MeasureSpec.EXACTLY);
+            // Make sure we have created all fragments that we need to have shown.
+            inLayout = true;
+            populateScheduler.flush();
+            inLayout = false;
+            // Page views next.
+            int size = getChildCount();
+            for (int i = 0; i < size; ++i) {
+                final View child = getChildAt(i);
+                if (child.getVisibility() != GONE) {
+                    final StreamPagerLayoutParams lp = (StreamPagerLayoutParams) child.getLayoutParams();
+                    final int widthSpec = MeasureSpec.makeMeasureSpec(
+                            (int) (childWidthSize * lp.widthFactor), MeasureSpec.EXACTLY);
+                    measurePage(child, lp, widthSpec, childHeightMeasureSpec);
+                }
             }
+        } finally {
+            endSection(PagerTracer.SECTION_MEASURE);
         }
     }
+
+    // Measure a page, unless it was last measured with the same specs and hasn't requested layout
+    private void measurePage(View child, StreamPagerLayoutParams lp, int widthSpec, int heightSpec) {
+        if (widthSpec == lp.lastWidthSpec && heightSpec == lp.lastHeightSpec
+                && !child.isLayoutRequested()) {
+            return;
+        }
+        child.measure(widthSpec, heightSpec);
+        lp.lastWidthSpec = widthSpec;
+        lp.lastHeightSpec = heightSpec;
+    }
     @Override
     protected void onSizeChanged(int w, int h, int oldw, int oldh) {
         super.onSizeChanged(w, h, oldw, oldh);
         // Make sure scroll position is set correctly.
         if (w != oldw) {
             recomputeScrollPosition(w, oldw, pageMargin, pageMargin);
+            // The margin offset between pages changed with the width
+            populate();
         }
     }
     private void recomputeScrollPosition(int width, int oldWidth, int margin, int oldMargin) {
-        if (oldWidth > 0 && !items.isEmpty()) {
+        if (oldWidth > 0 && window.size() > 0) {
             final int widthWithMargin = width + margin;
             final int oldWidthWithMargin = oldWidth + oldMargin;
-            final int xpos = getScrollX();
+            final int xpos = pagerScrollX();
             final float pageOffset = (float) xpos / oldWidthWithMargin;
             final int newOffsetPixels = (int) (pageOffset * widthWithMargin);
-            scrollTo(newOffsetPixels, getScrollY());
+            pagerScrollTo(newOffsetPixels, getScrollY());
             if (!scroller.isFinished()) {
                 // We now return to your regularly scheduled scroll, already in progress.
                 final int newDuration = scroller.getDuration() - scroller.timePassed();
@@ -815,84 +1672,107 @@ public class StreamViewPager<T> extends ViewGroup {
             }
         } else {
             final ItemInfo ii = infoForId(curItemId);
-            final float scrollOffset = ii != null ? Math.min(ii.offset, lastOffset) : 0;
+            final float scrollOffset = ii != null ? Math.min(ii.offset, window.lastOffset) : 0;
             final int scrollPos = (int) (scrollOffset * width);
-            if (scrollPos != getScrollX()) {
+            if (scrollPos != pagerScrollX()) {
                 completeScroll();
-                scrollTo(scrollPos, getScrollY());
+                pagerScrollTo(scrollPos, getScrollY());
             }
         }
     }
     @Override
     protected void onLayout(boolean changed, int l, int t, int r, int b) {
-        inLayout = true;
-        populate();
-        inLayout = false;
-        final int count = getChildCount();
-        int width = r - l;
-        int height = b - t;
-        int paddingLeft = getPaddingLeft();
-        int paddingTop = getPaddingTop();
-        int paddingRight = getPaddingRight();
-        int paddingBottom = getPaddingBottom();
-
-        for (int i = 0; i < count; i++) {
-            final View child = getChildAt(i);
-            if (child.getVisibility() != GONE) {
-                final StreamPagerLayoutParams lp = (StreamPagerLayoutParams) child.getLayoutParams();
-                ItemInfo ii;
-                if ((ii = infoForChild(child)) != null) {
-                    int loff = (int) (width * ii.offset);
-                    int childLeft = paddingLeft + loff;
-                    int childTop = paddingTop;
-                    if (lp.needsMeasure) {
-                        // This was added during layout and needs measurement.
-                        // Do it now that we know what we're working with.
-                        lp.needsMeasure = false;
-                        final int widthSpec = MeasureSpec.makeMeasureSpec(
-                                (int) ((width - paddingLeft - paddingRight) * lp.widthFactor),
-                                MeasureSpec.EXACTLY);
-                        final int heightSpec = MeasureSpec.makeMeasureSpec(
-                                (int) (height - paddingTop - paddingBottom),
-                                MeasureSpec.EXACTLY);
-                        child.measure(widthSpec, heightSpec);
+        beginSection(PagerTracer.SECTION_LAYOUT);
+        try {
+            inLayout = true;
+            populateScheduler.flush();
+            inLayout = false;
+            final int count = getChildCount();
+            int width = r - l;
+            int height = b - t;
+            int paddingLeft = getPaddingLeft();
+            int paddingTop = getPaddingTop();
+            int paddingRight = getPaddingRight();
+            int paddingBottom = getPaddingBottom();
+
+            for (int i = 0; i < count; i++) {
+                final View child = getChildAt(i);
+                if (child.getVisibility() != GONE) {
+                    final StreamPagerLayoutParams lp = (StreamPagerLayoutParams) child.getLayoutParams();
+                    ItemInfo ii;
+                    if ((ii = infoForChild(child)) != null) {
+                        int loff = (int) (width * ii.offset);
+                        int childLeft = paddingLeft + loff;
+                        int childTop = paddingTop;
+                        if (lp.needsMeasure) {
+                            // This was added during layout and needs measurement.
+                            // Do it now that we know what we're working with.
+                            lp.needsMeasure = false;
+                            final int widthSpec = MeasureSpec.makeMeasureSpec(
+                                    (int) ((width - paddingLeft - paddingRight) * lp.widthFactor),
+                                    MeasureSpec.EXACTLY);
+                            final int heightSpec = MeasureSpec.makeMeasureSpec(
+                                    (int) (height - paddingTop - paddingBottom),
+                                    MeasureSpec.EXACTLY);
+                            measurePage(child, lp, widthSpec, heightSpec);
+                        }
+                        final int childRight = childLeft + child.getMeasuredWidth();
+                        final int childBottom = childTop + child.getMeasuredHeight();
+                        // Pages that weren't measured again and haven't moved keep their layout
+                        if (child.isLayoutRequested() || child.getLeft() != childLeft
+                                || child.getTop() != childTop || child.getRight() != childRight
+                                || child.getBottom() != childBottom) {
+                            child.layout(childLeft, childTop, childRight, childBottom);
+                        }
                     }
-                    if (DEBUG) Log.v(TAG, "Positioning #" + i + " " + child + " f=" + ii.object
-                            + ":" + childLeft + "," + childTop + " " + child.getMeasuredWidth()
-                            + "x" + child.getMeasuredHeight());
-                    child.layout(childLeft, childTop,
-                            childLeft + child.getMeasuredWidth(),
-                            childTop + child.getMeasuredHeight());
                 }
             }
+            topPageBounds = paddingTop;
+            bottomPageBounds = height - paddingBottom;
+            firstLayout = false;
+            updateVisiblePages();
+        } finally {
+            endSection(PagerTracer.SECTION_LAYOUT);
         }
-        topPageBounds = paddingTop;
-        bottomPageBounds = height - paddingBottom;
-        firstLayout = false;
+        schedulePrefetch();
     }
     @Override
     public void computeScroll() {
+        if (!translationScrollEnabled) {
+            advanceScroll();
+        }
+    }
+
+    private void advanceScroll() {
         if (!scroller.isFinished() && scroller.computeScrollOffset()) {
-            int oldX = getScrollX();
-            int oldY = getScrollY();
-            int x = scroller.getCurrX();
-            int y = scroller.getCurrY();
-            if (oldX != x || oldY != y) {
-                scrollTo(x, y);
-                if (!pageScrolled(x)) {
-                    scroller.abortAnimation();
-                    scrollTo(0, y);
+            beginSection(PagerTracer.SECTION_SETTLE);
+            try {
+                if (metrics.recording) {
+                    metrics.frame(System.nanoTime());
                 }
+                int oldX = pagerScrollX();
+                int oldY = getScrollY();
+                int x = scroller.getCurrX();
+                int y = scroller.getCurrY();
+                if (oldX != x || oldY != y) {
+                    pagerScrollTo(x, y);
+                    if (!pageScrolled(x)) {
+                        scroller.abortAnimation();
+                        pagerScrollTo(0, y);
+                    }
+                }
+            } finally {
+                endSection(PagerTracer.SECTION_SETTLE);
             }
             // Keep on drawing until the animation has finished.
-            ViewCompat.postInvalidateOnAnimation(this);
+            postScrollStep();
             return;
         }
         // Done with scroll, clean up state.
         completeScroll();
     }
     private boolean pageScrolled(int xpos) {
-        if (items.size() == 0) {
+        if (window.size() == 0) {
             calledSuper = false;
             onPageScrolled(null, 0, 0);
             if (!calledSuper) {
@@ -939,31 +1819,99 @@ public class StreamViewPager<T> extends ViewGroup {
 
     private void completeScroll() {
         boolean needPopulate = scrollState == SCROLL_STATE_SETTLING;
-        if (needPopulate) {
-            // Done with scroll, no longer want to cache view drawing.
-            setScrollingCacheEnabled(false);
-            scroller.abortAnimation();
-            int oldX = getScrollX();
-            int oldY = getScrollY();
-            int x = scroller.getCurrX();
-            int y = scroller.getCurrY();
-            if (oldX != x || oldY != y) {
-                scrollTo(x, y);
+        beginSection(PagerTracer.SECTION_SETTLE);
+        try {
+            completingScroll = true;
+            finishTeleport();
+            if (needPopulate) {
+                // Done with scroll, no longer want to cache view drawing.
+                setScrollingCacheEnabled(false);
+                scroller.abortAnimation();
+                int oldX = pagerScrollX();
+                int oldY = getScrollY();
+                int x = scroller.getCurrX();
+                int y = scroller.getCurrY();
+                if (oldX != x || oldY != y) {
+                    pagerScrollTo(x, y);
+                }
+                setScrollState(SCROLL_STATE_IDLE);
             }
-            setScrollState(SCROLL_STATE_IDLE);
-        }
-        populatePending = false;
-        for (int i = 0; i< items.size(); i++) {
-            ItemInfo ii = items.get(i);
-            if (ii.scrolling) {
-                needPopulate = true;
-                ii.scrolling = false;
+            populatePending = false;
+            for (int i = 0; i< window.size(); i++) {
+                ItemInfo ii = window.get(i);
+                if (ii.scrolling) {
+                    needPopulate = true;
+                    ii.scrolling = false;
+                }
+            }
+            if (needPopulate) {
+                if (incrementalPopulateEnabled) {
+                    fillRadius = 0;
+                }
+                populate();
+                schedulePrefetch();
             }
+            completingScroll = false;
+            if (scrollState == SCROLL_STATE_IDLE) {
+                finishMetricsWhenPopulated();
+            }
+        } finally {
+            endSection(PagerTracer.SECTION_SETTLE);
         }
-        if (needPopulate) {
-            populate();
+    }
+    /**
+     * Guess which way a gesture starting at x will go and prefetch the page past the window
+     * that way, before the drag has passed the touch slop. A touch in a gutter likely drags
+     * away from the edge, elsewhere the last swipe direction is assumed.
+     */
+    private void speculate(float x) {
+        if (!prefetchEnabled || adapter == null) {
+            return;
+        }
+        if (x > getWidth() - gutterSize) {
+            travelForward = true;
+        } else if (x < gutterSize) {
+            travelForward = false;
+        } else {
+            travelForward = lastSwipeForward;
+        }
+        speculating = true;
+        speculativeKey = null;
+        schedulePrefetch();
+    }
+
+    // True between a touch down and the gesture showing its direction
+    boolean isSpeculating() {
+        return speculating;
+    }
+
+    // The gesture ended before it had a direction, the speculative page stays as a prefetch
+    private void cancelSpeculation() {
+        speculating = false;
+        speculativeKey = null;
+    }
+
+    // The gesture has a direction, drop the speculative page if it went the other way
+    private void endSpeculation(boolean forward) {
+        speculating = false;
+        final Object key = speculativeKey;
+        speculativeKey = null;
+        if (forward == travelForward) {
+            return;
+        }
+        travelForward = forward;
+        prefetcher.cancel();
+        if (key != null && window.size() > 0) {
+            final int index = forward ? 0 : window.size() - 1;
+            final ItemInfo<T> ii = window.get(index);
+            if (ii.prefetched && key.equals(ii.key)) {
+                window.removeItem(index);
+                destroyItem(ii);
+            }
         }
+        schedulePrefetch();
     }
+
     private boolean isGutterDrag(float x, float dx) {
         return (x < gutterSize && dx > 0) || (x > getWidth() - gutterSize && dx < 0);
     }
@@ -978,10 +1926,10 @@ public class StreamViewPager<T> extends ViewGroup {
         // Always take care of the touch gesture being complete.
         if (action == MotionEvent.ACTION_CANCEL || action == MotionEvent.ACTION_UP) {
             // Release the drag.
-            if (DEBUG) Log.v(TAG, "Intercept done!");
             isBeingDragged = false;
             isUnableToDrag = false;
             activePointerId = INVALID_POINTER;
+            cancelSpeculation();
             if (velocityTracker != null) {
                 velocityTracker.recycle();
                 velocityTracker = null;
@@ -992,11 +1940,9 @@ public class StreamViewPager<T> extends ViewGroup {
         // are dragging.
         if (action != MotionEvent.ACTION_DOWN) {
             if (isBeingDragged) {
-                if (DEBUG) Log.v(TAG, "Intercept returning true!");
                 return true;
             }
             if (isUnableToDrag) {
-                if (DEBUG) Log.v(TAG, "Intercept returning false!");
                 return false;
             }
         }
@@ -1021,7 +1967,9 @@ public class StreamViewPager<T> extends ViewGroup {
                 final float xDiff = Math.abs(dx);
                 final float y = MotionEventCompat.getY(ev, pointerIndex);
                 final float yDiff = Math.abs(y - lastMotionY);
-                if (DEBUG) Log.v(TAG, "Moved x to " + x + "," + y + " diff=" + xDiff + "," + yDiff);
+                if (speculating && dx != 0) {
+                    endSpeculation(dx < 0);
+                }
                 if (dx != 0 && !isGutterDrag(lastMotionX, dx) &&
                         canScroll(this, false, (int) dx, (int) x, (int) y)) {
                     // Nested view has scrollable area under this point. Let it be handled there.
@@ -1031,7 +1979,6 @@ public class StreamViewPager<T> extends ViewGroup {
                     return false;
                 }
                 if (xDiff > touchSlop && xDiff > yDiff) {
-                    if (DEBUG) Log.v(TAG, "Starting drag!");
                     isBeingDragged = true;
                     setScrollState(SCROLL_STATE_DRAGGING);
                     lastMotionX = dx > 0 ? initialMotionX + touchSlop :
@@ -1043,7 +1990,6 @@ public class StreamViewPager<T> extends ViewGroup {
                         // direction to be counted as a drag...  abort
                         // any attempt to drag horizontally, to work correctly
                         // with children that have scrolling containers.
-                        if (DEBUG) Log.v(TAG, "Starting unable to drag!");
                         isUnableToDrag = true;
                     }
                 }
@@ -1069,17 +2015,16 @@ public class StreamViewPager<T> extends ViewGroup {
                         Math.abs(scroller.getFinalX() - scroller.getCurrX()) > closeEnough) {
                     // Let the user 'catch' the pager as it animates.
                     scroller.abortAnimation();
+                    finishTeleport();
                     populatePending = false;
-                    populate();
+                    flushPopulate();
                     isBeingDragged = true;
                     setScrollState(SCROLL_STATE_DRAGGING);
                 } else {
                     completeScroll();
                     isBeingDragged = false;
+                    speculate(initialMotionX);
                 }
-                if (DEBUG) Log.v(TAG, "Down at " + lastMotionX + "," + lastMotionY
-                        + " isBeingDragged=" + isBeingDragged
-                        + "isUnableToDrag=" + isUnableToDrag);
                 break;
             }
             case MotionEventCompat.ACTION_POINTER_UP:
@@ -1116,8 +2061,9 @@ public class StreamViewPager<T> extends ViewGroup {
         switch (action & MotionEventCompat.ACTION_MASK) {
             case MotionEvent.ACTION_DOWN: {
                 scroller.abortAnimation();
+                finishTeleport();
                 populatePending = false;
-                populate();
+                flushPopulate();
                 isBeingDragged = true;
                 setScrollState(SCROLL_STATE_DRAGGING);
                 // Remember where the motion event started
@@ -1132,9 +2078,7 @@ public class StreamViewPager<T> extends ViewGroup {
                     final float xDiff = Math.abs(x - lastMotionX);
                     final float y = MotionEventCompat.getY(ev, pointerIndex);
                     final float yDiff = Math.abs(y - lastMotionY);
-                    if (DEBUG) Log.v(TAG, "Moved x to " + x + "," + y + " diff=" + xDiff + "," + yDiff);
                     if (xDiff > touchSlop && xDiff > yDiff) {
-                        if (DEBUG) Log.v(TAG, "Starting drag!");
                         isBeingDragged = true;
                         lastMotionX = x - initialMotionX > 0 ? initialMotionX + touchSlop :
                                 initialMotionX - touchSlop;
@@ -1158,8 +2102,11 @@ public class StreamViewPager<T> extends ViewGroup {
                     int initialVelocity = (int) VelocityTrackerCompat.getXVelocity(
                             velocityTracker, activePointerId);
                     populatePending = true;
+                    if (metrics.recording) {
+                        metrics.release(System.nanoTime());
+                    }
                     final int width = getWidth();
-                    final int scrollX = getScrollX();
+                    final int scrollX = pagerScrollX();
                     final ItemInfo<T> ii = infoForCurrentScrollPosition();
                     final T currentId = ii.id;
                     final float pageOffset = (((float) scrollX / width) - ii.offset) / ii.widthFactor;
@@ -1169,7 +2116,10 @@ public class StreamViewPager<T> extends ViewGroup {
                     final int totalDelta = (int) (x - initialMotionX);
                     T nextId = determineTargetPage(currentId, pageOffset, initialVelocity,
                             totalDelta);
-                    setCurrentItemInternal(nextId, true, true, initialVelocity);
+                    // A momentum landing can be far outside the window, and scrolling there
+                    // would create every page in between
+                    setCurrentItemInternal(nextId, true, true, initialVelocity,
+                            teleportEnabled || momentumFlingEnabled);
                     activePointerId = INVALID_POINTER;
                     endDrag();
                     needsInvalidate = leftEdge.onRelease() | rightEdge.onRelease();
@@ -1221,20 +2171,29 @@ public class StreamViewPager<T> extends ViewGroup {
         boolean needsInvalidate = false;
         final float deltaX = lastMotionX - x;
         lastMotionX = x;
-        float oldScrollX = getScrollX();
+        // When no child took the down event, moves skip onInterceptTouchEvent and end up here
+        if (speculating && deltaX != 0) {
+            endSpeculation(deltaX > 0);
+        }
+        if (deltaX != 0 && travelForward != deltaX > 0) {
+            travelForward = deltaX > 0;
+            schedulePrefetch();
+        }
+        populateForDrag();
+        float oldScrollX = pagerScrollX();
         float scrollX = oldScrollX + deltaX;
         final int width = getWidth();
-        float leftBound = width * firstOffset;
-        float rightBound = width * lastOffset;
+        float leftBound = width * window.firstOffset;
+        float rightBound = width * window.lastOffset;
         boolean leftAbsolute = true;
         boolean rightAbsolute = true;
-        final ItemInfo<T> firstItem = items.get(0);
-        final ItemInfo<T> lastItem = items.get(items.size() - 1);
-        if (adapter.hasPrev(firstItem.id)) {
+        final ItemInfo<T> firstItem = window.get(0);
+        final ItemInfo<T> lastItem = window.get(window.size() - 1);
+        if (hasIdBefore(firstItem.id)) {
             leftAbsolute = false;
             leftBound = firstItem.offset * width;
         }
-        if (adapter.hasNext(lastItem.id)) {
+        if (hasIdAfter(lastItem.id)) {
             rightAbsolute = false;
             rightBound = lastItem.offset * width;
         }
@@ -1253,97 +2212,98 @@ public class StreamViewPager<T> extends ViewGroup {
         }
         // Don't lose the rounded component
         lastMotionX += scrollX - (int) scrollX;
-        scrollTo((int) scrollX, getScrollY());
+        pagerScrollTo((int) scrollX, getScrollY());
         pageScrolled((int) scrollX);
         return needsInvalidate;
     }
+    /**
+     * Move the window along with a drag, so the drag never reaches its edge while the stream
+     * has more pages. Each time the finger crosses into another page, the window is filled
+     * around that page: pages ahead are added in this frame, and pages far behind are released.
+     * The current page and its neighbors are kept until the scroll completes, whatever the drag
+     * distance, since the drag may still settle back on them.
+     */
+    private void populateForDrag() {
+        final ItemInfo<T> center = infoForCurrentScrollPosition();
+        if (dragCenterKey == null) {
+            // The window is already filled around the current page
+            dragCenterKey = adapter.getIdKey(curItemId);
+        }
+        if (center == null || center.key.equals(dragCenterKey)) {
+            return;
+        }
+        dragCenterKey = center.key;
+        final ItemInfo<T> curInfo = infoForId(curItemId);
+        if (curInfo != null) {
+            // Keep the pages between here and the center too, the window can't have gaps
+            final int curIndex = window.indexOf(curInfo);
+            final int centerIndex = window.indexOf(center);
+            final int first = Math.max(Math.min(curIndex - 1, centerIndex), 0);
+            final int last = Math.min(Math.max(curIndex + 1, centerIndex), window.size() - 1);
+            for (int i = first; i <= last; i++) {
+                window.get(i).scrolling = true;
+            }
+        }
+        populateAround(center.id, null, PageWindow.IdPosition.EQUAL);
+    }
+
     /**
      * @return Info about the page at the current scroll position.
      *         This can be synthetic for a missing middle page; the 'object' field can be null.
      */
     private ItemInfo<T> infoForCurrentScrollPosition() {
         final int width = getWidth();
-        final float scrollOffset = width > 0 ? (float) getScrollX() / width : 0;
+        final float scrollOffset = width > 0 ? (float) pagerScrollX() / width : 0;
         final float marginOffset = width > 0 ? (float) pageMargin / width : 0;
-        /*
-        int lastPos = -1;
-        float lastOffset = 0.f;
-        float lastWidth = 0.f;
-        */
-        boolean first = true;
-        ItemInfo<T> lastItem = null;
-        for (int i = 0; i < items.size(); i++) {
-            ItemInfo<T> ii = items.get(i);
-            // TODO -- assuming this is impossible now. should double check
-            /*
-            if (!first && ii.position != lastPos + 1) {
-                // Create a synthetic item for a missing page.
-                ii = tempItem;
-                ii.offset = lastOffset + lastWidth + marginOffset;
-                ii.position = lastPos + 1;
-                ii.widthFactor = adapter.getPageWidth(ii.id);
-                i--;
-            }
-            */
-            final float leftBound = ii.offset;
-            final float rightBound = ii.offset + ii.widthFactor + marginOffset;
-            if (first || scrollOffset >= leftBound) {
-                if (scrollOffset < rightBound || i == items.size() - 1) {
-                    return ii;
-                }
-            } else {
-                return lastItem;
-            }
-            first = false;
-            /*
-            lastPos = ii.position;
-            lastOffset = ii.offset;
-            lastWidth = ii.widthFactor;
-            */
-            lastItem = ii;
-        }
-        return lastItem;
+        return window.infoForScrollPosition(scrollOffset, marginOffset);
     }
     private T determineTargetPage(T currentId, float pageOffset, int velocity, int deltaX) {
-        /*
-        T targetId;
-        if (Math.abs(deltaX) > flingDistance && Math.abs(velocity) > minimumVelocity) {
-            targetId = velocity > 0 ? currentId : adapter.nextId(currentId);
-        } else {
-            int distance = (int)(pageOffset + 0.5f);
-            int dir = (distance < 0) ? 1 : -1;
-            targetId = currentId;
-            while(distance != 0 && targetId != null) {
-                targetId = (dir == 1) ? adapter.nextId(targetId) : adapter.prevId(targetId);
-                distance += dir;
-            }
+        final boolean fling = Math.abs(deltaX) > flingDistance && Math.abs(velocity) > minimumVelocity;
+        if (fling && momentumFlingEnabled && getWidth() > 0) {
+            return determineMomentumTarget(currentId, pageOffset, velocity);
         }
-        if (items.size() > 0) {
-            final ItemInfo firstItem = items.get(0);
-            final ItemInfo lastItem = items.get(items.size() - 1);
-            // Only let the user target pages we have items for
-            targetId = Math.max(firstItem.position, Math.min(targetPage, lastItem.position));
-        }
-        return targetId;
-        */
-        int index = indexForId(currentId);
-        T targetId = currentId;
-        int distance = (int)(pageOffset + 0.5f);
+        return window.determineTargetPage(currentId, pageOffset, fling, velocity);
+    }
 
-        if (Math.abs(deltaX) > flingDistance && Math.abs(velocity) > minimumVelocity) {
-            if(index + 1 < items.size()) {
-                targetId = velocity > 0 ? currentId : adapter.nextId(currentId);
+    /**
+     * Find the page a fling would come to rest on. currentId is the page at the left edge of the
+     * screen and pageOffset how far it's scrolled, so a forward fling moves at least to the next
+     * page and a backward fling at least back to currentId, like a regular fling.
+     */
+    private T determineMomentumTarget(T currentId, float pageOffset, int velocity) {
+        final int width = getWidth();
+        final float marginOffset = (float) pageMargin / width;
+        flingScroller.fling(0, 0, -velocity, 0, Integer.MIN_VALUE, Integer.MAX_VALUE, 0, 0);
+        final int flungX = flingScroller.getFinalX();
+        flingScroller.forceFinished(true);
+        // Distance left to travel from the start of the current page, in pager widths
+        float travel = pageOffset * pageWidth(currentId) + (float) flungX / width;
+        T targetId = currentId;
+        if (velocity < 0) {
+            for (int i = 0; i < MAX_MOMENTUM_PAGES; i++) {
+                final T next = idAfter(targetId);
+                if (next == null) {
+                    break;
+                }
+                final float step = pageWidth(targetId) + marginOffset;
+                if (i > 0 && travel < step / 2) {
+                    break;
+                }
+                travel -= step;
+                targetId = next;
             }
         } else {
-            int dir = (distance < 0) ? 1 : -1;
-            targetId = currentId;
-            while(distance != 0 && targetId != null) {
-                int targetIndex = index + (dir * -1);
-                if(targetIndex < 0 || targetIndex >= items.size()) {
+            for (int i = 0; i < MAX_MOMENTUM_PAGES; i++) {
+                final T prev = idBefore(targetId);
+                if (prev == null) {
+                    break;
+                }
+                final float step = pageWidth(prev) + marginOffset;
+                if (-travel < step / 2) {
                     break;
                 }
-                targetId = (dir == 1) ? adapter.nextId(targetId) : adapter.prevId(targetId);
-                distance += dir;
+                travel += step;
+                targetId = prev;
             }
         }
         return targetId;
@@ -1351,6 +2311,7 @@ public class StreamViewPager<T> extends ViewGroup {
     @Override
     public void draw(Canvas canvas) {
         super.draw(canvas);
+        populateScheduler.frameDrawn();
         boolean needsInvalidate = false;
         final int overScrollMode = ViewCompat.getOverScrollMode(this);
         if (overScrollMode == ViewCompat.OVER_SCROLL_ALWAYS ||
@@ -1360,8 +2321,11 @@ public class StreamViewPager<T> extends ViewGroup {
                 final int restoreCount = canvas.save();
                 final int height = getHeight() - getPaddingTop() - getPaddingBottom();
                 final int width = getWidth();
+                if (translationScrollEnabled) {
+                    canvas.translate(-translationScrollX, 0);
+                }
                 canvas.rotate(270);
-                canvas.translate(-height + getPaddingTop(), firstOffset * width);
+                canvas.translate(-height + getPaddingTop(), window.firstOffset * width);
                 leftEdge.setSize(height, width);
                 needsInvalidate |= leftEdge.draw(canvas);
                 canvas.restoreToCount(restoreCount);
@@ -1370,8 +2334,11 @@ public class StreamViewPager<T> extends ViewGroup {
                 final int restoreCount = canvas.save();
                 final int width = getWidth();
                 final int height = getHeight() - getPaddingTop() - getPaddingBottom();
+                if (translationScrollEnabled) {
+                    canvas.translate(-translationScrollX, 0);
+                }
                 canvas.rotate(90);
-                canvas.translate(-getPaddingTop(), -(lastOffset + 1) * width);
+                canvas.translate(-getPaddingTop(), -(window.lastOffset + 1) * width);
                 rightEdge.setSize(height, width);
                 needsInvalidate |= rightEdge.draw(canvas);
                 canvas.restoreToCount(restoreCount);
@@ -1385,21 +2352,61 @@ public class StreamViewPager<T> extends ViewGroup {
             ViewCompat.postInvalidateOnAnimation(this);
         }
     }
+    @Override
+    protected boolean drawChild(Canvas canvas, View child, long drawingTime) {
+        final ItemInfo<T> ghost = teleportGhost;
+        if (ghost != null) {
+            final ItemInfo<T> ii = infoForChild(child);
+            if (ii != null && ii != ghost && ii.offset < ghost.offset + ghost.widthFactor
+                    && ii.offset + ii.widthFactor > ghost.offset) {
+                // Covered by the page a teleport is scrolling away from
+                return false;
+            }
+        }
+        // Skip pages outside the viewport, and clip the ones partly in it
+        final int scrollX = pagerScrollX();
+        final int width = getWidth();
+        final int left = child.getLeft();
+        final int right = child.getRight();
+        if (translationScrollEnabled) {
+            // Culled by the visible flags, which draw the pager again when they change
+            final ItemInfo<T> ii = infoForChild(child);
+            if (ii != null && !ii.visible) {
+                return false;
+            }
+        } else if (right <= scrollX || left >= scrollX + width) {
+            return false;
+        }
+        if (left >= scrollX && right <= scrollX + width) {
+            return super.drawChild(canvas, child, drawingTime);
+        }
+        // The canvas is only scrolled by the pager's own scroll, which is 0 in translation mode
+        final int restoreCount = canvas.save();
+        canvas.clipRect(getScrollX(), getScrollY(), getScrollX() + width, getScrollY() + getHeight());
+        final boolean more = super.drawChild(canvas, child, drawingTime);
+        canvas.restoreToCount(restoreCount);
+        return more;
+    }
+
     @Override
     protected void onDraw(Canvas canvas) {
         super.onDraw(canvas);
         // Draw the margin drawable between pages if needed.
-        if (pageMargin > 0 && marginDrawable != null && items.size() > 0 && adapter != null) {
-            final int scrollX = getScrollX();
+        if (pageMargin > 0 && marginDrawable != null && window.size() > 0 && adapter != null) {
+            final int scrollX = pagerScrollX();
+            final int restoreCount = canvas.save();
+            if (translationScrollEnabled) {
+                canvas.translate(-translationScrollX, 0);
+            }
             final int width = getWidth();
             final float marginOffset = (float) pageMargin / width;
-            float offset = items.get(0).offset;
+            float offset = window.get(0).offset;
 
-            final int itemCount = items.size();
-            final T firstId = items.get(0).id;
-            final T lastId = items.get(itemCount - 1).id;
-            for (int i = 0; i < items.size(); i++) {
-                ItemInfo<T> ii = items.get(i);
+            final int itemCount = window.size();
+            final T firstId = window.get(0).id;
+            final T lastId = window.get(itemCount - 1).id;
+            for (int i = 0; i < window.size(); i++) {
+                ItemInfo<T> ii = window.get(i);
                 float drawAt;
                 /* TODO -- We thinks this is unnecessary, better to test though
                 if (pos == ii.position) {
@@ -1423,10 +2430,13 @@ public class StreamViewPager<T> extends ViewGroup {
                     break; // No more visible, no sense in continuing
                 }
             }
+            canvas.restoreToCount(restoreCount);
         }
     }
 
     private void endDrag() {
+        cancelSpeculation();
+        dragCenterKey = null;
         isBeingDragged = false;
         isUnableToDrag = false;
         if (velocityTracker != null) {
@@ -1437,14 +2447,65 @@ public class StreamViewPager<T> extends ViewGroup {
     private void setScrollingCacheEnabled(boolean enabled) {
         if (scrollingCacheEnabled != enabled) {
             scrollingCacheEnabled = enabled;
-            if (USE_CACHE) {
-                final int size = getChildCount();
-                for (int i = 0; i < size; ++i) {
-                    final View child = getChildAt(i);
-                    if (child.getVisibility() != GONE) {
-                        child.setDrawingCacheEnabled(enabled);
-                    }
+            if (enabled) {
+                promoteScrollingLayers();
+            } else {
+                demoteScrollingLayers();
+            }
+        }
+    }
+
+    // Give the pages nearest the viewport hardware layers, up to maxScrollingLayers of them
+    private void promoteScrollingLayers() {
+        final int width = getWidth();
+        if (!scrollingLayersEnabled || adapter == null || width == 0) {
+            return;
+        }
+        final float scrollOffset = (float) pagerScrollX() / width;
+        int layers = 0;
+        for (int i = 0; i < getChildCount(); i++) {
+            if (((StreamPagerLayoutParams) getChildAt(i).getLayoutParams()).scrollingLayer) {
+                layers++;
+            }
+        }
+        for (; layers < maxScrollingLayers; layers++) {
+            View nearest = null;
+            // Pages more than a pager width away won't come into view during a swipe
+            float nearestDistance = 1;
+            for (int i = 0; i < getChildCount(); i++) {
+                final View child = getChildAt(i);
+                final StreamPagerLayoutParams lp = (StreamPagerLayoutParams) child.getLayoutParams();
+                if (lp.scrollingLayer || child.getVisibility() != VISIBLE
+                        || ViewCompat.getLayerType(child) != ViewCompat.LAYER_TYPE_NONE) {
+                    continue;
+                }
+                final ItemInfo<T> ii = infoForChild(child);
+                if (ii == null || !adapter.useScrollingLayer(ii.id)) {
+                    continue;
                 }
+                // Negative while the page is on screen
+                final float distance = Math.max(ii.offset - scrollOffset - 1,
+                        scrollOffset - ii.offset - ii.widthFactor);
+                if (distance < nearestDistance) {
+                    nearest = child;
+                    nearestDistance = distance;
+                }
+            }
+            if (nearest == null) {
+                break;
+            }
+            ((StreamPagerLayoutParams) nearest.getLayoutParams()).scrollingLayer = true;
+            ViewCompat.setLayerType(nearest, ViewCompat.LAYER_TYPE_HARDWARE, null);
+        }
+    }
+
+    private void demoteScrollingLayers() {
+        for (int i = 0; i < getChildCount(); i++) {
+            final View child = getChildAt(i);
+            final StreamPagerLayoutParams lp = (StreamPagerLayoutParams) child.getLayoutParams();
+            if (lp.scrollingLayer) {
+                lp.scrollingLayer = false;
+                ViewCompat.setLayerType(child, ViewCompat.LAYER_TYPE_NONE, null);
             }
         }
     }
@@ -1462,7 +2523,7 @@ public class StreamViewPager<T> extends ViewGroup {
     protected boolean canScroll(View v, boolean checkV, int dx, int x, int y) {
         if (v instanceof ViewGroup) {
             final ViewGroup group = (ViewGroup) v;
-            final int scrollX = v.getScrollX();
+            final int scrollX = v == this ? pagerScrollX() : v.getScrollX();
             final int scrollY = v.getScrollY();
             final int count = group.getChildCount();
             // Count backwards - let topmost views consume scroll distance first.
@@ -1581,7 +2642,7 @@ public class StreamViewPager<T> extends ViewGroup {
         return outRect;
     }
     boolean pageLeft() {
-        T prevId = adapter.prevId(curItemId);
+        T prevId = idBefore(curItemId);
         if (prevId != null) {
             setCurrentItem(prevId, true);
             return true;
@@ -1589,8 +2650,8 @@ public class StreamViewPager<T> extends ViewGroup {
         return false;
     }
     boolean pageRight() {
-        T nextId = adapter.nextId(curItemId);
-        if (adapter != null && adapter.hasNext(curItemId)) {
+        T nextId = idAfter(curItemId);
+        if (nextId != null) {
             setCurrentItem(nextId, true);
             return true;
         }
@@ -1604,11 +2665,12 @@ public class StreamViewPager<T> extends ViewGroup {
         final int focusableCount = views.size();
         final int descendantFocusability = getDescendantFocusability();
         if (descendantFocusability != FOCUS_BLOCK_DESCENDANTS) {
+            final ItemInfo<T> curInfo = infoForId(curItemId);
             for (int i = 0; i < getChildCount(); i++) {
                 final View child = getChildAt(i);
                 if (child.getVisibility() == VISIBLE) {
                     ItemInfo ii = infoForChild(child);
-                    if (ii != null && ii.id.equals(curItemId)) {
+                    if (ii != null && ii == curInfo) {
                         child.addFocusables(views, direction, focusableMode);
                     }
                 }
@@ -1641,11 +2703,12 @@ public class StreamViewPager<T> extends ViewGroup {
         // Note that we don't call super.addTouchables(), which means that
         // we don't call View.addTouchables().  This is okay because a ViewPager
         // is itself not touchable.
+        final ItemInfo<T> curInfo = infoForId(curItemId);
         for (int i = 0; i < getChildCount(); i++) {
             final View child = getChildAt(i);
             if (child.getVisibility() == VISIBLE) {
                 ItemInfo ii = infoForChild(child);
-                if (ii != null && ii.equals(curItemId)) {
+                if (ii != null && ii == curInfo) {
                     child.addTouchables(views);
                 }
             }
@@ -1670,11 +2733,12 @@ public class StreamViewPager<T> extends ViewGroup {
             increment = -1;
             end = -1;
         }
+        final ItemInfo<T> curInfo = infoForId(curItemId);
         for (int i = index; i != end; i += increment) {
             View child = getChildAt(i);
             if (child.getVisibility() == VISIBLE) {
                 ItemInfo ii = infoForChild(child);
-                if (ii != null && ii.equals(curItemId)) {
+                if (ii != null && ii == curInfo) {
                     if (child.requestFocus(direction, previouslyFocusedRect)) {
                         return true;
                     }
@@ -1689,11 +2753,12 @@ public class StreamViewPager<T> extends ViewGroup {
         // otherwise things get very confusing.
         // TODO: Should this note something about the paging container?
         final int childCount = getChildCount();
+        final ItemInfo<T> curInfo = infoForId(curItemId);
         for (int i = 0; i < childCount; i++) {
             final View child = getChildAt(i);
             if (child.getVisibility() == VISIBLE) {
                 final ItemInfo ii = infoForChild(child);
-                if (ii != null && ii.equals(curItemId) &&
+                if (ii != null && ii == curInfo &&
                         child.dispatchPopulateAccessibilityEvent(event)) {
                     return true;
                 }
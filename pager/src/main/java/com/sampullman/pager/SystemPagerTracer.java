@@ -0,0 +1,36 @@
+package com.sampullman.pager;
+
+import android.os.Build;
+import android.os.Trace;
+
+/**
+ * Default PagerTracer, which writes {@link android.os.Trace} sections that show up in systrace.
+ * Section names are constant, so nothing is allocated whether or not tracing is enabled.
+ */
+public class SystemPagerTracer implements PagerTracer {
+    private static final boolean TRACE_SUPPORTED =
+            Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2;
+
+    private static final String[] SECTION_NAMES = {
+            "StreamViewPager.populate",
+            "StreamViewPager.instantiate",
+            "StreamViewPager.destroy",
+            "StreamViewPager.measure",
+            "StreamViewPager.layout",
+            "StreamViewPager.settle"
+    };
+
+    @Override
+    public void beginSection(int section) {
+        if (TRACE_SUPPORTED) {
+            Trace.beginSection(SECTION_NAMES[section]);
+        }
+    }
+
+    @Override
+    public void endSection(int section) {
+        if (TRACE_SUPPORTED) {
+            Trace.endSection();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.sampullman.pager;
+
+import android.view.ViewGroup;
+
+import org.junit.Test;
+
+import static com.sampullman.pager.PageWindowFixture.*;
+import static org.junit.Assert.*;
+
+/**
+ * Checks that swiping through a LongStreamViewAdapter with the pager's id and width caches
+ * doesn't allocate once warmed up, for ids outside the Long.valueOf cache.
+ */
+public class LongAdapterAllocationTest {
+    // Far outside the Long.valueOf cache, and more ids than the window's link cache holds
+    private static final long FIRST_ID = 1000000000000L;
+    private static final long LAST_ID = FIRST_ID + 300;
+    private static final long START_ID = FIRST_ID + 150;
+
+    private static class RangeAdapter extends LongStreamViewAdapter {
+        @Override
+        public long nextId(long fromId) {
+            return fromId < LAST_ID ? fromId + 1 : NO_ID;
+        }
+
+        @Override
+        public long prevId(long fromId) {
+            return fromId > FIRST_ID ? fromId - 1 : NO_ID;
+        }
+
+        @Override
+        public long initialId() {
+            return START_ID;
+        }
+
+        @Override
+        public float getPageWidth(Long id) {
+            return id % 3 == 0 ? 0.5f : 1.f;
+        }
+
+        @Override
+        public Object instantiateItem(ViewGroup container, Long id) {
+            return id;
+        }
+    }
+
+    // The parts of the pager's PageSource that go through its caches
+    private static class CachedSource extends FakeSource<Long> {
+        private final RangeAdapter adapter = new RangeAdapter();
+        private final NeighborCache<Long> neighbors = new NeighborCache<>(32);
+        private final PageWidthCache widths = new PageWidthCache(32);
+
+        @Override
+        public Long nextId(Long id) {
+            return neighbors.next(adapter, id);
+        }
+
+        @Override
+        public Long prevId(Long id) {
+            return neighbors.prev(adapter, id);
+        }
+
+        @Override
+        public float pageWidth(Long id) {
+            return widths.widthOf(adapter, id);
+        }
+
+        @Override
+        public Object idKey(Long id) {
+            return adapter.getIdKey(id);
+        }
+    }
+
+    @Test
+    public void populate_doesNotAllocateWhenSwipingLongIds() throws Exception {
+        final CachedSource source = new CachedSource();
+        final PageWindow<Long> window = new PageWindow<>(source);
+        final Long start = source.adapter.initialViewId();
+        window.populate(start, null, PageWindow.IdPosition.EQUAL, PAGE_LIMIT, PAGE_LIMIT, MARGIN_OFFSET);
+        // Let the window, caches and boxes reach their steady state
+        assertEquals(start, swipe(window, source, start, start));
+
+        // Allocations in the caches show in every pass
+        assertEquals(0, allocatedBytes(new Runnable() {
+            @Override
+            public void run() {
+                swipe(window, source, start, start);
+            }
+        }));
+    }
+}
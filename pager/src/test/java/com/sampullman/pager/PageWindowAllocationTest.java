@@ -0,0 +1,33 @@
+package com.sampullman.pager;
+
+import org.junit.Test;
+
+import static com.sampullman.pager.PageWindowFixture.*;
+import static org.junit.Assert.*;
+
+/**
+ * Checks that swiping through a warmed up PageWindow doesn't allocate.
+ */
+public class PageWindowAllocationTest {
+    // Small enough that the boxed ids come from the Integer cache
+    private static final int FIRST_ID = -100;
+    private static final int LAST_ID = 100;
+    private static final Integer START_ID = 0;
+
+    @Test
+    public void populate_doesNotAllocateWhenSwiping() throws Exception {
+        final IntRangeSource source = new IntRangeSource(FIRST_ID, LAST_ID);
+        final PageWindow<Integer> window = new PageWindow<>(source);
+        window.populate(START_ID, null, PageWindow.IdPosition.EQUAL, PAGE_LIMIT, PAGE_LIMIT, MARGIN_OFFSET);
+        // Let the window, index and pool grow to their steady state sizes
+        assertEquals(START_ID, swipe(window, source, START_ID, START_ID));
+
+        // Allocations in the window show in every pass
+        assertEquals(0, allocatedBytes(new Runnable() {
+            @Override
+            public void run() {
+                swipe(window, source, START_ID, START_ID);
+            }
+        }));
+    }
+}
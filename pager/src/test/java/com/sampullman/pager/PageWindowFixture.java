@@ -0,0 +1,131 @@
+package com.sampullman.pager;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Page sources, swipes and allocation measurement shared by the PageWindow tests.
+ */
+final class PageWindowFixture {
+    static final int PAGE_LIMIT = 2;
+    static final float MARGIN_OFFSET = 0.05f;
+    // The JIT can allocate on our thread when it deoptimizes code that had allocations
+    // eliminated, so allocation is measured as the best of a few passes
+    private static final int PASSES = 5;
+
+    private PageWindowFixture() {
+    }
+
+    /** A source whose pages are their ids, with the navigation and widths left to subclasses. */
+    abstract static class FakeSource<T extends Comparable<T>> implements PageSource<T> {
+        @Override
+        public Object idKey(T id) {
+            return id;
+        }
+
+        @Override
+        public boolean hasAtLeastOneItem() {
+            return true;
+        }
+
+        @Override
+        public int compareIds(T a, T b) {
+            return a.compareTo(b);
+        }
+
+        @Override
+        public float offsetBetween(T a, T b, float marginOffset) {
+            return Float.NaN;
+        }
+
+        @Override
+        public void instantiate(ItemInfo<T> ii) {
+            ii.object = ii.id;
+        }
+
+        @Override
+        public void destroy(ItemInfo<T> ii) {
+            // This space for rent
+        }
+    }
+
+    /** Integer ids from first to last, every third page half width. */
+    static class IntRangeSource extends FakeSource<Integer> {
+        private final int first;
+        private final int last;
+
+        IntRangeSource(int first, int last) {
+            this.first = first;
+            this.last = last;
+        }
+
+        @Override
+        public Integer nextId(Integer id) {
+            return id < last ? id + 1 : null;
+        }
+
+        @Override
+        public Integer prevId(Integer id) {
+            return id > first ? id - 1 : null;
+        }
+
+        @Override
+        public float pageWidth(Integer id) {
+            return id % 3 == 0 ? 0.5f : 1.f;
+        }
+    }
+
+    /** Move the current page of the window from one id to another, as a settled swipe does. */
+    static <T> void step(PageWindow<T> window, T from, T to) {
+        final ItemInfo<T> oldCurInfo = window.infoForId(from);
+        window.populate(to, oldCurInfo, window.relativePosition(from, to), PAGE_LIMIT, PAGE_LIMIT,
+                MARGIN_OFFSET);
+    }
+
+    /**
+     * Swipe from the current page to one end of the stream, then to the other, then back to
+     * the given id.
+     *
+     * @return The id swiped back to
+     */
+    static <T> T swipe(PageWindow<T> window, PageSource<T> source, T cur, T back) {
+        for (T id = source.nextId(cur); id != null; id = source.nextId(id)) {
+            step(window, cur, id);
+            cur = id;
+        }
+        for (T id = source.prevId(cur); id != null; id = source.prevId(id)) {
+            step(window, cur, id);
+            cur = id;
+        }
+        for (T id = source.nextId(cur); id != null && source.compareIds(id, back) <= 0;
+                id = source.nextId(id)) {
+            step(window, cur, id);
+            cur = id;
+        }
+        return cur;
+    }
+
+    /**
+     * Returns the fewest bytes the work allocated on this thread over a few runs. Skips the
+     * test if the JVM can't measure thread allocation.
+     */
+    static long allocatedBytes(Runnable work) {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        final com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+        final long threadId = Thread.currentThread().getId();
+
+        long start = threads.getThreadAllocatedBytes(threadId);
+        final long overhead = threads.getThreadAllocatedBytes(threadId) - start;
+        long allocated = Long.MAX_VALUE;
+        for (int i = 0; i < PASSES; i++) {
+            start = threads.getThreadAllocatedBytes(threadId);
+            work.run();
+            allocated = Math.min(allocated, threads.getThreadAllocatedBytes(threadId) - start - overhead);
+        }
+        return allocated;
+    }
+}
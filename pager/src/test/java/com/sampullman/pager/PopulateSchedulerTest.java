@@ -0,0 +1,147 @@
+package com.sampullman.pager;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that populate requests are coalesced into one pass per frame.
+ */
+public class PopulateSchedulerTest {
+
+    private static class FakeHost implements PopulateScheduler.Host {
+        final List<Runnable> posted = new ArrayList<>();
+        boolean canPopulate = true;
+        int populates;
+
+        @Override
+        public void postFlush(Runnable flush) {
+            posted.add(flush);
+        }
+
+        @Override
+        public boolean populateNow() {
+            if (!canPopulate) {
+                return false;
+            }
+            populates++;
+            return true;
+        }
+
+        void runFrame() {
+            final List<Runnable> frame = new ArrayList<>(posted);
+            posted.clear();
+            for (Runnable r : frame) {
+                r.run();
+            }
+        }
+    }
+
+    @Test
+    public void requestsInOneFrameArePopulatedOnce() {
+        final FakeHost host = new FakeHost();
+        final PopulateScheduler scheduler = new PopulateScheduler(host);
+        // A swipe: touch down, release, settle, measure and layout all ask for a populate
+        for (int i = 0; i < 5; i++) {
+            scheduler.markDirty();
+        }
+        assertEquals(1, host.posted.size());
+        host.runFrame();
+        assertEquals(1, host.populates);
+        assertEquals(1, scheduler.getPasses());
+        assertFalse(scheduler.isDirty());
+        // Nothing left for the next frame
+        host.runFrame();
+        assertEquals(1, scheduler.getPasses());
+    }
+
+    @Test
+    public void flushPopulatesSynchronouslyOnce() {
+        final FakeHost host = new FakeHost();
+        final PopulateScheduler scheduler = new PopulateScheduler(host);
+        scheduler.markDirty();
+        scheduler.flush();
+        scheduler.flush();
+        assertEquals(1, host.populates);
+        // The posted flush finds the window clean
+        host.runFrame();
+        assertEquals(1, scheduler.getPasses());
+    }
+
+    @Test
+    public void populateThatCantRunStaysDirty() {
+        final FakeHost host = new FakeHost();
+        final PopulateScheduler scheduler = new PopulateScheduler(host);
+        host.canPopulate = false;
+        scheduler.markDirty();
+        host.runFrame();
+        assertTrue(scheduler.isDirty());
+        assertEquals(0, scheduler.getPasses());
+        host.canPopulate = true;
+        scheduler.flush();
+        assertFalse(scheduler.isDirty());
+        assertEquals(1, scheduler.getPasses());
+    }
+
+    @Test
+    public void requestAfterPassWaitsForNextFrame() {
+        final FakeHost host = new FakeHost();
+        final PopulateScheduler scheduler = new PopulateScheduler(host);
+        // The release of a swipe populates right away, then the settle asks again
+        scheduler.populated();
+        scheduler.markDirty();
+        host.runFrame();
+        assertEquals(0, host.populates);
+        assertTrue(scheduler.isDirty());
+        scheduler.frameDrawn();
+        host.runFrame();
+        assertEquals(1, host.populates);
+        assertFalse(scheduler.isDirty());
+        host.runFrame();
+        assertEquals(2, scheduler.getPasses());
+    }
+
+    @Test
+    public void measureFlushesAfterPass() {
+        final FakeHost host = new FakeHost();
+        final PopulateScheduler scheduler = new PopulateScheduler(host);
+        scheduler.populated();
+        // A width change, then the measure it requested lays out the pages from the window
+        scheduler.markDirty();
+        scheduler.flush();
+        assertEquals(1, host.populates);
+        assertFalse(scheduler.isDirty());
+        // The posted flush finds the window clean
+        host.runFrame();
+        assertEquals(2, scheduler.getPasses());
+    }
+
+    @Test
+    public void passDoesntPostFlush() {
+        final FakeHost host = new FakeHost();
+        final PopulateScheduler scheduler = new PopulateScheduler(host);
+        scheduler.markDirty();
+        host.runFrame();
+        assertEquals(1, host.populates);
+        // A drag populates every frame, without waking the pager up again for nothing
+        scheduler.populated();
+        assertTrue(host.posted.isEmpty());
+    }
+
+    @Test
+    public void frameThatIsntDrawnStillEnds() {
+        final FakeHost host = new FakeHost();
+        final PopulateScheduler scheduler = new PopulateScheduler(host);
+        scheduler.populated();
+        scheduler.markDirty();
+        host.runFrame();
+        assertEquals(0, host.populates);
+        // Nothing was drawn, but the flush put off in the last frame runs in this one
+        host.runFrame();
+        assertEquals(1, host.populates);
+        assertFalse(scheduler.isDirty());
+    }
+}
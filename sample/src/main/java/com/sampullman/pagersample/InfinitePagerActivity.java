@@ -14,11 +14,11 @@ import android.widget.TextView;
 
 import static android.view.ViewGroup.LayoutParams.MATCH_PARENT;
 
-import com.sampullman.pager.StreamViewAdapter;
+import com.sampullman.pager.LongRecyclingStreamViewAdapter;
 import com.sampullman.pager.StreamViewPager;
 
 public class InfinitePagerActivity extends AppCompatActivity {
-    StreamViewPager<Integer> pager;
+    StreamViewPager<Long> pager;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -26,6 +26,9 @@ public class InfinitePagerActivity extends AppCompatActivity {
 
         pager = new StreamViewPager<>(this);
         pager.setLayoutParams(new ViewGroup.LayoutParams(MATCH_PARENT, MATCH_PARENT));
+        pager.setPrefetchEnabled(true);
+        pager.setIncrementalPopulateEnabled(true);
+        pager.setTeleportEnabled(true);
 
         pager.setAdapter(new InfinitePagerAdapter(this));
         setContentView(pager);
@@ -50,7 +53,7 @@ public class InfinitePagerActivity extends AppCompatActivity {
         return b;
     }
 
-    public class InfinitePagerAdapter extends StreamViewAdapter<Integer> {
+    public class InfinitePagerAdapter extends LongRecyclingStreamViewAdapter {
 
         private Context context;
 
@@ -59,38 +62,55 @@ public class InfinitePagerActivity extends AppCompatActivity {
         }
 
         @Override
-        public Object instantiateItem(ViewGroup container, Integer id) {
+        public View createView(ViewGroup container, int viewType) {
             LinearLayout layout = new LinearLayout(context);
             layout.setLayoutParams(new ViewGroup.LayoutParams(MATCH_PARENT, MATCH_PARENT));
-            container.addView(layout);
 
             layout.addView(pagerButton("<", -1));
 
             TextView tv = new TextView(context);
             tv.setLayoutParams(new LinearLayout.LayoutParams(0, MATCH_PARENT, 1));
-            tv.setText(String.format("Page %d", id));
             tv.setTextSize(24);
             tv.setGravity(Gravity.CENTER);
             layout.addView(tv);
+            layout.setTag(tv);
 
             layout.addView(pagerButton(">", 1));
             return layout;
         }
 
-        public Integer initialViewId() {
+        @Override
+        public void bindView(View view, Long id) {
+            TextView tv = (TextView) view.getTag();
+            tv.setText(String.format("Page %d", id));
+        }
+
+        @Override
+        public long initialId() {
             return 0;
         }
 
         @Override
-        public Integer nextId(Integer fromId) {
+        public long nextId(long fromId) {
             return fromId + 1;
         }
 
         @Override
-        public Integer prevId(Integer fromId) {
+        public long prevId(long fromId) {
             return fromId - 1;
         }
 
+        @Override
+        public int distance(long fromId, long toId) {
+            return (int) (toId - fromId);
+        }
+
+        @Override
+        public float offsetBetween(long fromId, long toId) {
+            // Every page is full width
+            return toId - fromId;
+        }
+
     }
 
 }
@@ -1,12 +1,85 @@
 package com.sampullman.pagersample;
 
+import android.content.Context;
 import android.os.Bundle;
+import android.os.SystemClock;
 import android.support.v7.app.AppCompatActivity;
+import android.view.Gravity;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+import android.widget.ProgressBar;
+import android.widget.TextView;
+
+import static android.view.ViewGroup.LayoutParams.MATCH_PARENT;
+import static android.view.ViewGroup.LayoutParams.WRAP_CONTENT;
+
+import com.sampullman.pager.AsyncStreamViewAdapter;
+import com.sampullman.pager.StreamViewPager;
 
 public class LongLoadPagerActivity extends AppCompatActivity {
+    // Simulated time it takes to load the data for one page
+    private static final long LOAD_TIME = 1500; // ms
+
+    StreamViewPager<Integer> pager;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
+
+        pager = new StreamViewPager<>(this);
+        pager.setLayoutParams(new ViewGroup.LayoutParams(MATCH_PARENT, MATCH_PARENT));
+        pager.setPrefetchEnabled(true);
+        pager.setIncrementalPopulateEnabled(true);
+
+        pager.setAdapter(new LongLoadPagerAdapter(this));
+        setContentView(pager);
+    }
+
+    public class LongLoadPagerAdapter extends AsyncStreamViewAdapter<Integer, String> {
+
+        private Context context;
+
+        public LongLoadPagerAdapter(Context context) {
+            this.context = context;
+        }
+
+        @Override
+        public View createPlaceholder(ViewGroup container, Integer id) {
+            ProgressBar progress = new ProgressBar(context);
+            FrameLayout.LayoutParams lp = new FrameLayout.LayoutParams(WRAP_CONTENT, WRAP_CONTENT);
+            lp.gravity = Gravity.CENTER;
+            progress.setLayoutParams(lp);
+            return progress;
+        }
+
+        @Override
+        public String preparePage(Integer id) throws Exception {
+            SystemClock.sleep(LOAD_TIME);
+            return String.format("Loaded page %d", id);
+        }
+
+        @Override
+        public View createPage(ViewGroup container, Integer id, String data) {
+            TextView tv = new TextView(context);
+            tv.setText(data);
+            tv.setTextSize(24);
+            tv.setGravity(Gravity.CENTER);
+            return tv;
+        }
+
+        public Integer initialViewId() {
+            return 0;
+        }
+
+        @Override
+        public Integer nextId(Integer fromId) {
+            return fromId + 1;
+        }
+
+        @Override
+        public Integer prevId(Integer fromId) {
+            return fromId - 1;
+        }
     }
 }